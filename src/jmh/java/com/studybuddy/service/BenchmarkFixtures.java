@@ -0,0 +1,108 @@
+package com.studybuddy.service;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+import java.util.Random;
+
+/**
+ * Deterministic, realistically sized inputs shared by the benchmarks.
+ */
+final class BenchmarkFixtures {
+
+    private static final String[] WORDS = {
+            "the", "students", "learning", "assessment", "chapter", "example", "analysis", "process",
+            "results", "because", "important", "method", "question", "answer", "review", "concept",
+            "data", "system", "approach", "section", "figure", "table", "however", "therefore"
+    };
+
+    private BenchmarkFixtures() {
+    }
+
+    static String document(int chars) {
+        Random random = new Random(chars);
+        StringBuilder text = new StringBuilder(chars + 16);
+        int lineLength = 0;
+        while (text.length() < chars) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            text.append(word);
+            lineLength += word.length();
+            if (random.nextInt(15) == 0) {
+                text.append(".\n");
+                lineLength = 0;
+            } else if (lineLength > 80) {
+                text.append('\n');
+                lineLength = 0;
+            } else {
+                text.append(' ');
+            }
+        }
+        text.setLength(chars);
+        return text.toString();
+    }
+
+    /**
+     * A structured quiz reply as requested with {@link QuizParser#RESPONSE_SCHEMA}.
+     */
+    static String quizJson(int questions) {
+        Random random = new Random(questions);
+        StringBuilder quiz = new StringBuilder("{\"questions\": [");
+        for (int i = 0; i < questions; i++) {
+            quiz.append(i == 0 ? "\n" : ",\n")
+                    .append("  {\"question\": \"").append(sentence(random, 14)).append("?\",\n")
+                    .append("   \"options\": [");
+            for (int option = 0; option < 4; option++) {
+                quiz.append(option == 0 ? "" : ", ").append('"').append(sentence(random, 5)).append(" ").append(option).append('"');
+            }
+            quiz.append("],\n   \"correctIndex\": ").append(random.nextInt(4))
+                    .append(",\n   \"explanation\": \"").append(sentence(random, 12)).append(".\"}");
+        }
+        return quiz.append("\n]}").toString();
+    }
+
+    /**
+     * A generateContent reply whose candidate text is {@code text}, shaped like the real API's.
+     */
+    static String geminiResponse(String text) {
+        String escaped = new String(JsonStringEncoder.getInstance().quoteAsString(text));
+        return """
+                {
+                  "candidates": [
+                    {
+                      "content": {
+                        "parts": [
+                          {
+                            "text": "%s"
+                          }
+                        ],
+                        "role": "model"
+                      },
+                      "finishReason": "STOP",
+                      "safetyRatings": [
+                        {"category": "HARM_CATEGORY_HARASSMENT", "probability": "NEGLIGIBLE"},
+                        {"category": "HARM_CATEGORY_HATE_SPEECH", "probability": "NEGLIGIBLE"},
+                        {"category": "HARM_CATEGORY_SEXUALLY_EXPLICIT", "probability": "NEGLIGIBLE"},
+                        {"category": "HARM_CATEGORY_DANGEROUS_CONTENT", "probability": "NEGLIGIBLE"}
+                      ]
+                    }
+                  ],
+                  "usageMetadata": {
+                    "promptTokenCount": 3120,
+                    "candidatesTokenCount": %d,
+                    "totalTokenCount": %d
+                  },
+                  "modelVersion": "gemini-2.0-flash"
+                }
+                """.formatted(escaped, text.length() / 4, 3120 + text.length() / 4);
+    }
+
+    private static String sentence(Random random, int words) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sentence.append(' ');
+            }
+            sentence.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sentence.toString();
+    }
+}
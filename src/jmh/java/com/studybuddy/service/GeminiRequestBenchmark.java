@@ -0,0 +1,53 @@
+package com.studybuddy.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.studybuddy.dto.GeminiRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building and serializing the generateContent request body for a chat-sized prompt and
+ * for a full document analysis prompt.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class GeminiRequestBenchmark {
+
+    @Param({"200", "14000"})
+    public int promptChars;
+
+    private GeminiRequestWriter writer;
+    private String prompt;
+    private ByteArrayOutputStream out;
+
+    @Setup
+    public void setUp() {
+        writer = new GeminiRequestWriter(new ObjectMapper());
+        prompt = BenchmarkFixtures.document(promptChars);
+        out = new ByteArrayOutputStream(promptChars + 2048);
+    }
+
+    @Benchmark
+    public int serializeRequest() throws IOException {
+        out.reset();
+        writer.writeTo(GeminiRequest.forPrompt(prompt, 0.7, 2048), out);
+        return out.size();
+    }
+}
@@ -0,0 +1,67 @@
+package com.studybuddy.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.studybuddy.dto.GeminiResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extracting the candidate text from a generateContent reply, both from a complete body and
+ * fed in network-sized buffers as the WebClient delivers it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class GeminiResponseBenchmark {
+
+    // A short chat answer and a long document analysis
+    @Param({"1500", "8000"})
+    public int replyChars;
+
+    private static final int CHUNK_SIZE = 8192;
+
+    private JsonFactory jsonFactory;
+    private DataBufferFactory bufferFactory;
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        jsonFactory = new ObjectMapper().getFactory();
+        bufferFactory = DefaultDataBufferFactory.sharedInstance;
+        body = BenchmarkFixtures.geminiResponse(BenchmarkFixtures.document(replyChars)).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public GeminiResponse parseBody() {
+        return GeminiResponseParser.parse(jsonFactory, body);
+    }
+
+    @Benchmark
+    public GeminiResponse parseChunked() {
+        GeminiResponseParser parser = new GeminiResponseParser(jsonFactory);
+        for (int offset = 0; offset < body.length; offset += CHUNK_SIZE) {
+            int length = Math.min(CHUNK_SIZE, body.length - offset);
+            parser.feed(bufferFactory.wrap(ByteBuffer.wrap(body, offset, length)));
+        }
+        return parser.finish();
+    }
+}
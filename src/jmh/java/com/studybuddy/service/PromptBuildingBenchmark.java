@@ -0,0 +1,61 @@
+package com.studybuddy.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prompt construction in {@link GeminiFlashService}: the per-queryType system preamble and
+ * the document analysis prompt built around extracted text.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class PromptBuildingBenchmark {
+
+    @Param({"general", "code", "document"})
+    public String queryType;
+
+    @Param({"12000", "40000"})
+    public int documentChars;
+
+    private GeminiFlashService service;
+    private String chatPrompt;
+    private MockMultipartFile file;
+    private String documentText;
+
+    @Setup
+    public void setUp() {
+        // Prompt building touches none of the collaborators
+        service = new GeminiFlashService(null, null, null, null, null, null);
+        chatPrompt = "Student question: Can you explain how binary search works and what its time complexity is?";
+        documentText = BenchmarkFixtures.document(documentChars);
+        file = new MockMultipartFile("file", "lecture-notes.txt", "text/plain",
+                documentText.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public String enhancePrompt() {
+        return service.enhancePrompt(chatPrompt, queryType);
+    }
+
+    @Benchmark
+    public String buildContentAnalysisPrompt() {
+        return service.buildContentAnalysisPrompt(file, "Check the structure and suggest improvements", documentText);
+    }
+}
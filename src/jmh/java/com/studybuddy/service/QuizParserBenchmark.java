@@ -0,0 +1,54 @@
+package com.studybuddy.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.studybuddy.dto.Quiz;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing and validating a structured quiz reply.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class QuizParserBenchmark {
+
+    @Param({"5", "20"})
+    public int questions;
+
+    private QuizParser parser;
+    private String reply;
+
+    @Setup
+    public void setUp() {
+        parser = new QuizParser(new ObjectMapper());
+        reply = BenchmarkFixtures.quizJson(questions);
+    }
+
+    @Benchmark
+    public int parseAndValidate() {
+        List<Quiz.Question> parsed = parser.parse(reply);
+        int valid = 0;
+        for (Quiz.Question question : parsed) {
+            if (question.isValid()) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+}
@@ -0,0 +1,106 @@
+package com.studybuddy.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.studybuddy.service.AuthTokenService;
+import com.studybuddy.service.InvalidTokenException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Authenticates {@code /api} requests from the {@code Authorization: Bearer} access token.
+ * Verification is a signature and expiry check only, with no database access. The verified
+ * email and name are exposed as request attributes, and controllers take the user from there
+ * rather than from the request body. Requests to protected paths without a valid token get a 401.
+ */
+@Component
+public class AuthTokenFilter extends OncePerRequestFilter {
+
+    public static final String USER_EMAIL = "authenticatedUserEmail";
+    public static final String USER_NAME = "authenticatedUserName";
+
+    // Reachable without a token; check-session still reads one when present
+    private static final Set<String> PUBLIC_PATHS = Set.of(
+            "/api/auth/register",
+            "/api/auth/login",
+            "/api/auth/refresh",
+            "/api/auth/logout",
+            "/api/auth/check-session",
+            "/api/health");
+
+    private final AuthTokenService tokenService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public AuthTokenFilter(AuthTokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // CORS preflights carry no Authorization header
+        return !path(request).startsWith("/api/") || HttpMethod.OPTIONS.matches(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean publicPath = PUBLIC_PATHS.contains(path(request));
+        String token = bearerToken(request);
+
+        if (token != null) {
+            try {
+                AuthTokenService.TokenClaims claims = tokenService.verifyAccess(token);
+                request.setAttribute(USER_EMAIL, claims.email());
+                request.setAttribute(USER_NAME, claims.name());
+            } catch (InvalidTokenException e) {
+                if (!publicPath) {
+                    reject(request, response, e.getMessage(), "invalid_token");
+                    return;
+                }
+            }
+        } else if (!publicPath) {
+            reject(request, response, "Please sign in to continue.", null);
+            return;
+        }
+
+        chain.doFilter(request, response);
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, String message, String error)
+            throws IOException {
+        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        // Matches the controllers' @CrossOrigin("*") so cross-origin clients can read the 401 and refresh
+        if (request.getHeader(HttpHeaders.ORIGIN) != null) {
+            response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, "*");
+        }
+        response.setHeader(HttpHeaders.WWW_AUTHENTICATE, error != null ? "Bearer error=\"" + error + "\"" : "Bearer");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), Map.of(
+                "success", false,
+                "authenticated", false,
+                "message", message));
+    }
+
+    private String bearerToken(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            return null;
+        }
+        String token = header.substring(7).trim();
+        return token.isEmpty() ? null : token;
+    }
+
+    private String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
@@ -0,0 +1,66 @@
+package com.studybuddy.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Signed session token settings ({@code auth.token.*}).
+ */
+@ConfigurationProperties(prefix = "auth.token")
+public class AuthTokenProperties {
+
+    // HMAC-SHA256 key, at least 32 bytes; every instance behind a load balancer needs the same one.
+    // When empty a random key is generated at startup, so tokens do not survive a restart.
+    private String secret = "";
+
+    private String issuer = "ai-study-buddy";
+
+    // Access tokens are verified without a database lookup, so this bounds how long a deactivated user keeps access
+    private Duration accessTtl = Duration.ofMinutes(15);
+
+    private Duration refreshTtl = Duration.ofDays(7);
+
+    // Tolerance for clock differences between instances when checking expiry
+    private Duration clockSkew = Duration.ofSeconds(30);
+
+    public String getSecret() {
+        return secret;
+    }
+
+    public void setSecret(String secret) {
+        this.secret = secret;
+    }
+
+    public String getIssuer() {
+        return issuer;
+    }
+
+    public void setIssuer(String issuer) {
+        this.issuer = issuer;
+    }
+
+    public Duration getAccessTtl() {
+        return accessTtl;
+    }
+
+    public void setAccessTtl(Duration accessTtl) {
+        this.accessTtl = accessTtl;
+    }
+
+    public Duration getRefreshTtl() {
+        return refreshTtl;
+    }
+
+    public void setRefreshTtl(Duration refreshTtl) {
+        this.refreshTtl = refreshTtl;
+    }
+
+    public Duration getClockSkew() {
+        return clockSkew;
+    }
+
+    public void setClockSkew(Duration clockSkew) {
+        this.clockSkew = clockSkew;
+    }
+}
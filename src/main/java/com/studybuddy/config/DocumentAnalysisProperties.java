@@ -0,0 +1,93 @@
+package com.studybuddy.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Chunked (map-reduce) document analysis settings ({@code document.analysis.*}).
+ * Documents that fit in one chunk are analyzed with a single prompt.
+ */
+@ConfigurationProperties(prefix = "document.analysis")
+public class DocumentAnalysisProperties {
+
+    // Token budget of the document text in each map prompt
+    private int chunkTokens = 3000;
+
+    // Rough characters per token used to turn the token budget into a chunk length
+    private int charsPerToken = 4;
+
+    // Text repeated at the start of each chunk so points spanning a boundary are not lost
+    private int overlapChars = 300;
+
+    // Map prompts in flight per document; lowered to the document bulkhead's current limit
+    private int mapConcurrency = 4;
+
+    // A map prompt shed by a full bulkhead waits for a permit this many times before the analysis fails
+    private int shedRetries = 6;
+
+    // First wait before re-sending a shed map prompt, doubled on every further attempt
+    private Duration shedRetryBackoff = Duration.ofMillis(250);
+
+    private Duration shedRetryMaxBackoff = Duration.ofSeconds(2);
+
+    public int getChunkTokens() {
+        return chunkTokens;
+    }
+
+    public void setChunkTokens(int chunkTokens) {
+        this.chunkTokens = chunkTokens;
+    }
+
+    public int getCharsPerToken() {
+        return charsPerToken;
+    }
+
+    public void setCharsPerToken(int charsPerToken) {
+        this.charsPerToken = charsPerToken;
+    }
+
+    public int getOverlapChars() {
+        return overlapChars;
+    }
+
+    public void setOverlapChars(int overlapChars) {
+        this.overlapChars = overlapChars;
+    }
+
+    public int getMapConcurrency() {
+        return mapConcurrency;
+    }
+
+    public void setMapConcurrency(int mapConcurrency) {
+        this.mapConcurrency = mapConcurrency;
+    }
+
+    public int getShedRetries() {
+        return shedRetries;
+    }
+
+    public void setShedRetries(int shedRetries) {
+        this.shedRetries = shedRetries;
+    }
+
+    public Duration getShedRetryBackoff() {
+        return shedRetryBackoff;
+    }
+
+    public void setShedRetryBackoff(Duration shedRetryBackoff) {
+        this.shedRetryBackoff = shedRetryBackoff;
+    }
+
+    public Duration getShedRetryMaxBackoff() {
+        return shedRetryMaxBackoff;
+    }
+
+    public void setShedRetryMaxBackoff(Duration shedRetryMaxBackoff) {
+        this.shedRetryMaxBackoff = shedRetryMaxBackoff;
+    }
+
+    public int chunkChars() {
+        return chunkTokens * charsPerToken;
+    }
+}
@@ -0,0 +1,75 @@
+package com.studybuddy.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Per-user document retrieval index settings ({@code document.index.*}).
+ */
+@ConfigurationProperties(prefix = "document.index")
+public class DocumentIndexProperties {
+
+    private boolean enabled = true;
+
+    // Indexed passages are smaller than analysis chunks so answers get focused context
+    private int chunkChars = 1500;
+
+    private int overlapChars = 200;
+
+    // Passages sent to the model per question
+    private int topK = 4;
+
+    // Users whose index is kept in memory; others are rebuilt from MongoDB on their next question
+    private long maxCachedUsers = 500;
+
+    private Duration cacheIdleTimeout = Duration.ofMinutes(30);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getChunkChars() {
+        return chunkChars;
+    }
+
+    public void setChunkChars(int chunkChars) {
+        this.chunkChars = chunkChars;
+    }
+
+    public int getOverlapChars() {
+        return overlapChars;
+    }
+
+    public void setOverlapChars(int overlapChars) {
+        this.overlapChars = overlapChars;
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    public void setTopK(int topK) {
+        this.topK = topK;
+    }
+
+    public long getMaxCachedUsers() {
+        return maxCachedUsers;
+    }
+
+    public void setMaxCachedUsers(long maxCachedUsers) {
+        this.maxCachedUsers = maxCachedUsers;
+    }
+
+    public Duration getCacheIdleTimeout() {
+        return cacheIdleTimeout;
+    }
+
+    public void setCacheIdleTimeout(Duration cacheIdleTimeout) {
+        this.cacheIdleTimeout = cacheIdleTimeout;
+    }
+}
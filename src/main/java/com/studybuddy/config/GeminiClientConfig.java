@@ -0,0 +1,58 @@
+package com.studybuddy.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Builds the WebClient used for Gemini calls on top of a dedicated, sized Reactor Netty
+ * connection pool. Pool gauges are exported as reactor.netty.connection.provider.*
+ * metrics with the tag name=gemini.
+ */
+@Configuration
+@EnableConfigurationProperties(GeminiHttpProperties.class)
+public class GeminiClientConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider geminiConnectionProvider(GeminiHttpProperties properties) {
+        return ConnectionProvider.builder("gemini")
+                .maxConnections(properties.getMaxConnections())
+                .pendingAcquireMaxCount(properties.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(properties.getPendingAcquireTimeout())
+                .maxIdleTime(properties.getMaxIdleTime())
+                .maxLifeTime(properties.getMaxLifeTime())
+                .evictInBackground(properties.getEvictInBackground())
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public WebClient geminiWebClient(WebClient.Builder builder,
+                                     ConnectionProvider geminiConnectionProvider,
+                                     GeminiHttpProperties properties,
+                                     @Value("${gemini.api.base-url:https://generativelanguage.googleapis.com}") String baseUrl) {
+        HttpClient httpClient = HttpClient.create(geminiConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .responseTimeout(properties.getDefaultResponseTimeout());
+
+        // HTTP/2 is negotiated through ALPN, so it only applies to TLS endpoints
+        if (properties.isHttp2Enabled() && baseUrl.startsWith("https")) {
+            httpClient = httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11).secure();
+        }
+
+        return builder
+                .baseUrl(baseUrl)
+                .defaultHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
@@ -0,0 +1,119 @@
+package com.studybuddy.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Connection pool and timeout settings for the Gemini HTTP client ({@code gemini.http.*}).
+ */
+@ConfigurationProperties(prefix = "gemini.http")
+public class GeminiHttpProperties {
+
+    private int maxConnections = 100;
+
+    private int pendingAcquireMaxCount = 500;
+
+    private Duration pendingAcquireTimeout = Duration.ofSeconds(10);
+
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+
+    private Duration maxLifeTime = Duration.ofMinutes(5);
+
+    private Duration evictInBackground = Duration.ofSeconds(30);
+
+    private Duration connectTimeout = Duration.ofSeconds(5);
+
+    private boolean http2Enabled = true;
+
+    private Duration defaultResponseTimeout = Duration.ofSeconds(60);
+
+    // Per queryType overrides of defaultResponseTimeout, e.g. gemini.http.response-timeouts.document=90s
+    private Map<String, Duration> responseTimeouts = new HashMap<>();
+
+    public Duration responseTimeoutFor(String queryType) {
+        return responseTimeouts.getOrDefault(queryType, defaultResponseTimeout);
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public int getPendingAcquireMaxCount() {
+        return pendingAcquireMaxCount;
+    }
+
+    public void setPendingAcquireMaxCount(int pendingAcquireMaxCount) {
+        this.pendingAcquireMaxCount = pendingAcquireMaxCount;
+    }
+
+    public Duration getPendingAcquireTimeout() {
+        return pendingAcquireTimeout;
+    }
+
+    public void setPendingAcquireTimeout(Duration pendingAcquireTimeout) {
+        this.pendingAcquireTimeout = pendingAcquireTimeout;
+    }
+
+    public Duration getMaxIdleTime() {
+        return maxIdleTime;
+    }
+
+    public void setMaxIdleTime(Duration maxIdleTime) {
+        this.maxIdleTime = maxIdleTime;
+    }
+
+    public Duration getMaxLifeTime() {
+        return maxLifeTime;
+    }
+
+    public void setMaxLifeTime(Duration maxLifeTime) {
+        this.maxLifeTime = maxLifeTime;
+    }
+
+    public Duration getEvictInBackground() {
+        return evictInBackground;
+    }
+
+    public void setEvictInBackground(Duration evictInBackground) {
+        this.evictInBackground = evictInBackground;
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public boolean isHttp2Enabled() {
+        return http2Enabled;
+    }
+
+    public void setHttp2Enabled(boolean http2Enabled) {
+        this.http2Enabled = http2Enabled;
+    }
+
+    public Duration getDefaultResponseTimeout() {
+        return defaultResponseTimeout;
+    }
+
+    public void setDefaultResponseTimeout(Duration defaultResponseTimeout) {
+        this.defaultResponseTimeout = defaultResponseTimeout;
+    }
+
+    public Map<String, Duration> getResponseTimeouts() {
+        return responseTimeouts;
+    }
+
+    public void setResponseTimeouts(Map<String, Duration> responseTimeouts) {
+        this.responseTimeouts = responseTimeouts;
+    }
+}
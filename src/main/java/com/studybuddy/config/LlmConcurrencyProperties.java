@@ -0,0 +1,105 @@
+package com.studybuddy.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Adaptive concurrency limits for upstream LLM calls ({@code llm.concurrency.*}).
+ * Each bulkhead (chat, quiz, document) has its own limiter so one kind of traffic
+ * cannot use up the capacity of another.
+ */
+@ConfigurationProperties(prefix = "llm.concurrency")
+public class LlmConcurrencyProperties {
+
+    // Multiplicative decrease applied when a call is throttled, times out or is slower than the threshold
+    private double backoffRatio = 0.9;
+
+    // Sent as Retry-After when a bulkhead rejects a call
+    private Duration retryAfter = Duration.ofSeconds(5);
+
+    private Map<String, Bulkhead> bulkheads = new LinkedHashMap<>(Map.of(
+            "chat", new Bulkhead(20, 2, 200, Duration.ofSeconds(10)),
+            "quiz", new Bulkhead(10, 2, 50, Duration.ofSeconds(30)),
+            "document", new Bulkhead(5, 1, 20, Duration.ofSeconds(30))
+    ));
+
+    public double getBackoffRatio() {
+        return backoffRatio;
+    }
+
+    public void setBackoffRatio(double backoffRatio) {
+        this.backoffRatio = backoffRatio;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public void setRetryAfter(Duration retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+
+    public Map<String, Bulkhead> getBulkheads() {
+        return bulkheads;
+    }
+
+    public void setBulkheads(Map<String, Bulkhead> bulkheads) {
+        this.bulkheads = bulkheads;
+    }
+
+    public static class Bulkhead {
+
+        private int initialLimit;
+
+        private int minLimit;
+
+        private int maxLimit;
+
+        private Duration latencyThreshold;
+
+        public Bulkhead() {
+        }
+
+        public Bulkhead(int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold) {
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            this.latencyThreshold = latencyThreshold;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        public Duration getLatencyThreshold() {
+            return latencyThreshold;
+        }
+
+        public void setLatencyThreshold(Duration latencyThreshold) {
+            this.latencyThreshold = latencyThreshold;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.studybuddy.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Retry, hedging and circuit breaker settings for upstream LLM calls ({@code llm.resilience.*}).
+ */
+@ConfigurationProperties(prefix = "llm.resilience")
+public class LlmResilienceProperties {
+
+    private final Retry retry = new Retry();
+
+    private final Hedge hedge = new Hedge();
+
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    public Retry getRetry() {
+        return retry;
+    }
+
+    public Hedge getHedge() {
+        return hedge;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public static class Retry {
+
+        private boolean enabled = true;
+
+        // Total attempts including the first call
+        private int maxAttempts = 3;
+
+        private Duration initialBackoff = Duration.ofMillis(500);
+
+        private Duration maxBackoff = Duration.ofSeconds(5);
+
+        // Fraction of each backoff that is randomized, 0..1
+        private double jitter = 0.5;
+
+        private Set<Integer> retryableStatuses = new HashSet<>(Set.of(429, 500, 502, 503, 504));
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public Duration getInitialBackoff() {
+            return initialBackoff;
+        }
+
+        public void setInitialBackoff(Duration initialBackoff) {
+            this.initialBackoff = initialBackoff;
+        }
+
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public void setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+
+        public double getJitter() {
+            return jitter;
+        }
+
+        public void setJitter(double jitter) {
+            this.jitter = jitter;
+        }
+
+        public Set<Integer> getRetryableStatuses() {
+            return retryableStatuses;
+        }
+
+        public void setRetryableStatuses(Set<Integer> retryableStatuses) {
+            this.retryableStatuses = retryableStatuses;
+        }
+    }
+
+    public static class Hedge {
+
+        private boolean enabled = true;
+
+        private Set<String> queryTypes = new HashSet<>(Set.of("general", "code", "explain"));
+
+        // Only prompts up to this length are hedged; long generations would just double the cost
+        private int maxPromptChars = 2000;
+
+        // The hedge is sent once the primary call has been outstanding for this latency percentile
+        private double delayPercentile = 0.95;
+
+        // Delay used until enough latency samples have been recorded
+        private Duration fallbackDelay = Duration.ofSeconds(3);
+
+        private Duration minDelay = Duration.ofMillis(500);
+
+        private long minSamples = 20;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Set<String> getQueryTypes() {
+            return queryTypes;
+        }
+
+        public void setQueryTypes(Set<String> queryTypes) {
+            this.queryTypes = queryTypes;
+        }
+
+        public int getMaxPromptChars() {
+            return maxPromptChars;
+        }
+
+        public void setMaxPromptChars(int maxPromptChars) {
+            this.maxPromptChars = maxPromptChars;
+        }
+
+        public double getDelayPercentile() {
+            return delayPercentile;
+        }
+
+        public void setDelayPercentile(double delayPercentile) {
+            this.delayPercentile = delayPercentile;
+        }
+
+        public Duration getFallbackDelay() {
+            return fallbackDelay;
+        }
+
+        public void setFallbackDelay(Duration fallbackDelay) {
+            this.fallbackDelay = fallbackDelay;
+        }
+
+        public Duration getMinDelay() {
+            return minDelay;
+        }
+
+        public void setMinDelay(Duration minDelay) {
+            this.minDelay = minDelay;
+        }
+
+        public long getMinSamples() {
+            return minSamples;
+        }
+
+        public void setMinSamples(long minSamples) {
+            this.minSamples = minSamples;
+        }
+    }
+
+    public static class CircuitBreaker {
+
+        private boolean enabled = true;
+
+        // Number of most recent calls the failure rate is computed over
+        private int windowSize = 50;
+
+        private int minimumCalls = 20;
+
+        private double failureRateThreshold = 0.5;
+
+        private Duration openDuration = Duration.ofSeconds(30);
+
+        private int halfOpenTrialCalls = 3;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getWindowSize() {
+            return windowSize;
+        }
+
+        public void setWindowSize(int windowSize) {
+            this.windowSize = windowSize;
+        }
+
+        public int getMinimumCalls() {
+            return minimumCalls;
+        }
+
+        public void setMinimumCalls(int minimumCalls) {
+            this.minimumCalls = minimumCalls;
+        }
+
+        public double getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        public void setFailureRateThreshold(double failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        public Duration getOpenDuration() {
+            return openDuration;
+        }
+
+        public void setOpenDuration(Duration openDuration) {
+            this.openDuration = openDuration;
+        }
+
+        public int getHalfOpenTrialCalls() {
+            return halfOpenTrialCalls;
+        }
+
+        public void setHalfOpenTrialCalls(int halfOpenTrialCalls) {
+            this.halfOpenTrialCalls = halfOpenTrialCalls;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.studybuddy.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Password hashing settings ({@code auth.password.*}).
+ */
+@ConfigurationProperties(prefix = "auth.password")
+public class PasswordHashingProperties {
+
+    // BCrypt log2 cost; each step doubles the time per hash. Stored hashes with a lower cost are upgraded on login.
+    private int bcryptStrength = 10;
+
+    // Hashing threads; more than the CPU count only adds contention
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    // Hash requests allowed to wait for a thread before logins are rejected as busy
+    private int queueCapacity = 200;
+
+    public int getBcryptStrength() {
+        return bcryptStrength;
+    }
+
+    public void setBcryptStrength(int bcryptStrength) {
+        this.bcryptStrength = bcryptStrength;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+}
@@ -0,0 +1,86 @@
+package com.studybuddy.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Quiz question bank settings ({@code quiz.bank.*}).
+ */
+@ConfigurationProperties(prefix = "quiz.bank")
+public class QuestionBankProperties {
+
+    private boolean enabled = true;
+
+    // Questions kept per topic and difficulty; the background fill stops once reached
+    private int targetSize = 60;
+
+    // Questions requested per background generation call
+    private int batchSize = 10;
+
+    // Most requested topics considered by each fill run
+    private int popularTopics = 20;
+
+    private long minRequests = 3;
+
+    // Token-set Jaccard similarity at which a question counts as a near-duplicate
+    private double similarityThreshold = 0.8;
+
+    private Duration generationTimeout = Duration.ofMinutes(2);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getTargetSize() {
+        return targetSize;
+    }
+
+    public void setTargetSize(int targetSize) {
+        this.targetSize = targetSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getPopularTopics() {
+        return popularTopics;
+    }
+
+    public void setPopularTopics(int popularTopics) {
+        this.popularTopics = popularTopics;
+    }
+
+    public long getMinRequests() {
+        return minRequests;
+    }
+
+    public void setMinRequests(long minRequests) {
+        this.minRequests = minRequests;
+    }
+
+    public double getSimilarityThreshold() {
+        return similarityThreshold;
+    }
+
+    public void setSimilarityThreshold(double similarityThreshold) {
+        this.similarityThreshold = similarityThreshold;
+    }
+
+    public Duration getGenerationTimeout() {
+        return generationTimeout;
+    }
+
+    public void setGenerationTimeout(Duration generationTimeout) {
+        this.generationTimeout = generationTimeout;
+    }
+}
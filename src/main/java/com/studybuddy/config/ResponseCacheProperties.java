@@ -0,0 +1,68 @@
+package com.studybuddy.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Gemini response cache settings ({@code gemini.cache.*}).
+ */
+@ConfigurationProperties(prefix = "gemini.cache")
+public class ResponseCacheProperties {
+
+    private long maxEntries = 1000;
+
+    private Duration ttl = Duration.ofMinutes(30);
+
+    // Replies are expected to differ between calls, so they are never cached
+    private Set<String> disabledQueryTypes = new LinkedHashSet<>(List.of("creative"));
+
+    // Free-text chat types whose prompts are matched ignoring case; code, documents and summaries keep it
+    private Set<String> caseInsensitiveQueryTypes = new LinkedHashSet<>(List.of("general", "explain"));
+
+    // Longer prompts are matched exactly, since case in pasted text can change the answer
+    private int caseInsensitiveMaxLength = 1000;
+
+    public long getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(long maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public Set<String> getDisabledQueryTypes() {
+        return disabledQueryTypes;
+    }
+
+    public void setDisabledQueryTypes(Set<String> disabledQueryTypes) {
+        this.disabledQueryTypes = disabledQueryTypes;
+    }
+
+    public Set<String> getCaseInsensitiveQueryTypes() {
+        return caseInsensitiveQueryTypes;
+    }
+
+    public void setCaseInsensitiveQueryTypes(Set<String> caseInsensitiveQueryTypes) {
+        this.caseInsensitiveQueryTypes = caseInsensitiveQueryTypes;
+    }
+
+    public int getCaseInsensitiveMaxLength() {
+        return caseInsensitiveMaxLength;
+    }
+
+    public void setCaseInsensitiveMaxLength(int caseInsensitiveMaxLength) {
+        this.caseInsensitiveMaxLength = caseInsensitiveMaxLength;
+    }
+}
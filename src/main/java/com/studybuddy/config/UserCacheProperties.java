@@ -0,0 +1,43 @@
+package com.studybuddy.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * In-process user cache settings ({@code user.cache.*}).
+ */
+@ConfigurationProperties(prefix = "user.cache")
+public class UserCacheProperties {
+
+    private boolean enabled = true;
+
+    private long maxEntries = 10_000;
+
+    // Writes on this instance invalidate immediately; this bounds staleness after writes on other instances
+    private Duration ttl = Duration.ofMinutes(5);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(long maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+}
@@ -1,7 +1,13 @@
 package com.studybuddy.controller;
+import com.studybuddy.config.AuthTokenFilter;
 import com.studybuddy.entity.User;
 import com.studybuddy.service.AuthService;
+import com.studybuddy.service.AuthTokenService;
+import com.studybuddy.service.InvalidTokenException;
+import com.studybuddy.service.PasswordHashingBusyException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -17,6 +23,9 @@ public class AuthController {
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private AuthTokenService tokenService;
+
     @PostMapping("/register")
     public ResponseEntity<Map<String, Object>> register(@RequestBody Map<String, String> request) {
         String name = request.get("name");
@@ -57,6 +66,8 @@ public class AuthController {
                 return ResponseEntity.badRequest().body(response);
             }
 
+        } catch (PasswordHashingBusyException e) {
+            throw e;
         } catch (Exception e) {
             response.put("success", false);
             response.put("message", "Registration failed: " + e.getMessage());
@@ -97,6 +108,7 @@ public class AuthController {
                         "name", userName,
                         "email", email.trim().toLowerCase()
                 ));
+                putTokens(response, tokenService.issue(email.trim().toLowerCase(), userName));
                 return ResponseEntity.ok(response);
             } else {
                 response.put("success", false);
@@ -104,6 +116,8 @@ public class AuthController {
                 return ResponseEntity.badRequest().body(response);
             }
 
+        } catch (PasswordHashingBusyException e) {
+            throw e;
         } catch (Exception e) {
             response.put("success", false);
             response.put("message", "Login failed: " + e.getMessage());
@@ -111,12 +125,49 @@ public class AuthController {
         }
     }
 
-    @GetMapping("/user/{email}")
-    public ResponseEntity<Map<String, Object>> getUser(@PathVariable String email) {
-        Optional<User> userOpt = authService.getUserByEmail(email.toLowerCase());
+    @PostMapping("/refresh")
+    public ResponseEntity<Map<String, Object>> refresh(@RequestBody Map<String, String> request) {
+        Map<String, Object> response = new HashMap<>();
+
+        AuthTokenService.TokenClaims claims;
+        try {
+            claims = tokenService.verifyRefresh(request.get("refreshToken"));
+        } catch (InvalidTokenException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
 
+        // The one lookup per refresh is what ends sessions of deactivated or deleted accounts
+        Optional<User> userOpt = authService.getActiveLoginUser(claims.email());
+        if (userOpt.isEmpty()) {
+            response.put("success", false);
+            response.put("message", "Your session has expired. Please sign in again.");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+
+        response.put("success", true);
+        response.put("user", Map.of(
+                "name", userOpt.get().getName(),
+                "email", claims.email()
+        ));
+        putTokens(response, tokenService.issue(claims.email(), userOpt.get().getName()));
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/user/{email}")
+    public ResponseEntity<Map<String, Object>> getUser(@PathVariable String email,
+                                                       @RequestAttribute(AuthTokenFilter.USER_EMAIL) String userEmail) {
         Map<String, Object> response = new HashMap<>();
 
+        if (!userEmail.equals(email.toLowerCase())) {
+            response.put("success", false);
+            response.put("error", "Not allowed to view this user");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+        }
+
+        Optional<User> userOpt = authService.getUserByEmail(userEmail);
+
         if (userOpt.isPresent()) {
             User user = userOpt.get();
             response.put("success", true);
@@ -133,31 +184,50 @@ public class AuthController {
         }
     }
 
+    // Tokens are stateless, so signing out is the client discarding them; they lapse at expiry
     @PostMapping("/logout")
-    public ResponseEntity<Map<String, Object>> logout(@RequestBody Map<String, String> request) {
+    public ResponseEntity<Map<String, Object>> logout(@RequestBody(required = false) Map<String, String> request) {
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
         response.put("message", "Logout successful");
         return ResponseEntity.ok(response);
     }
 
+    // Answered from the verified access token alone, without a database lookup
     @GetMapping("/check-session")
-    public ResponseEntity<Map<String, Object>> checkSession(@RequestParam String email) {
-        Optional<User> userOpt = authService.getUserByEmail(email.toLowerCase());
-
+    public ResponseEntity<Map<String, Object>> checkSession(
+            @RequestAttribute(value = AuthTokenFilter.USER_EMAIL, required = false) String email,
+            @RequestAttribute(value = AuthTokenFilter.USER_NAME, required = false) String name) {
         Map<String, Object> response = new HashMap<>();
 
-        if (userOpt.isPresent()) {
-            User user = userOpt.get();
+        if (email != null) {
             response.put("authenticated", true);
             response.put("user", Map.of(
-                    "name", user.getName(),
-                    "email", user.getEmail()
+                    "name", name,
+                    "email", email
             ));
-            return ResponseEntity.ok(response);
         } else {
             response.put("authenticated", false);
-            return ResponseEntity.ok(response);
         }
+        return ResponseEntity.ok(response);
+    }
+
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<Map<String, Object>> handleHashingBusy(PasswordHashingBusyException e) {
+        System.out.println("Rejected by password hashing queue");
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", e.getMessage());
+        response.put("retryAfter", e.getRetryAfter().toSeconds());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter().toSeconds()))
+                .body(response);
+    }
+
+    private void putTokens(Map<String, Object> response, AuthTokenService.TokenPair tokens) {
+        response.put("accessToken", tokens.accessToken());
+        response.put("refreshToken", tokens.refreshToken());
+        response.put("tokenType", "Bearer");
+        response.put("expiresIn", tokens.accessTtl().toSeconds());
     }
-}
\ No newline at end of file
+}
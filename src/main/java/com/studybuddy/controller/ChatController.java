@@ -1,11 +1,32 @@
 package com.studybuddy.controller;
+import com.studybuddy.config.AuthTokenFilter;
+import com.studybuddy.entity.DocumentChunk;
+import com.studybuddy.service.AuthService;
+import com.studybuddy.service.DocumentIndexService;
+import com.studybuddy.service.GeminiApiException;
 import com.studybuddy.service.GeminiFlashService;
+import com.studybuddy.service.LlmOverloadedException;
+import com.studybuddy.service.QuestionBankService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 import org.springframework.web.multipart.MultipartFile;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api")
@@ -15,134 +36,273 @@ public class ChatController {
     @Autowired
     private GeminiFlashService geminiService;
 
+    @Autowired
+    private QuestionBankService questionBankService;
+
+    @Autowired
+    private DocumentIndexService documentIndexService;
+
+    @Autowired
+    private AuthService authService;
+
+    @Value("${spring.servlet.multipart.max-file-size:20MB}")
+    private DataSize maxUploadSize;
+
     @PostMapping("/chat")
-    public ResponseEntity<Map<String, Object>> chat(@RequestBody Map<String, String> request) {
+    public Mono<ResponseEntity<Map<String, Object>>> chat(@RequestBody Map<String, String> request,
+            @RequestAttribute(AuthTokenFilter.USER_EMAIL) String userEmail) {
         String message = request.get("message");
-        String userEmail = request.get("userEmail");
         String queryType = request.get("queryType");
 
         System.out.println("Chat request - User: " + userEmail + ", Type: " + queryType);
 
         Map<String, Object> response = new HashMap<>();
 
-        try {
-            if (message == null || message.trim().isEmpty()) {
-                response.put("success", false);
-                response.put("message", "Message cannot be empty");
-                return ResponseEntity.badRequest().body(response);
-            }
+        if (message == null || message.trim().isEmpty()) {
+            response.put("success", false);
+            response.put("message", "Message cannot be empty");
+            return Mono.just(ResponseEntity.badRequest().body(response));
+        }
 
-            String prompt = buildPrompt(message, queryType);
-            String aiResponse = geminiService.generateResponse(prompt);
+        // Deferred so that failures while building the request get the same error response as failed calls
+        return Mono.defer(() -> geminiService.generateChatResponse(buildPrompt(message, queryType), "general"))
+                .map(aiResponse -> {
+                    // Only real answers count towards the user's chats, not error replies
+                    authService.incrementUserStats(userEmail, "chat");
+                    response.put("success", true);
+                    response.put("response", aiResponse);
+                    response.put("queryType", queryType);
+                    return ResponseEntity.ok(response);
+                })
+                .onErrorResume(e -> !(e instanceof LlmOverloadedException), e -> {
+                    System.out.println("Error in chat: " + e.getMessage());
+                    response.put("success", false);
+                    response.put("message", chatErrorMessage(e));
+                    return Mono.just(ResponseEntity.internalServerError().body(response));
+                });
+    }
+    @PostMapping(value = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Map<String, Object>>> chatStream(@RequestBody Map<String, String> request,
+            @RequestAttribute(AuthTokenFilter.USER_EMAIL) String userEmail) {
+        String message = request.get("message");
+        String queryType = request.get("queryType");
 
-            response.put("success", true);
-            response.put("response", aiResponse);
-            response.put("queryType", queryType);
-            return ResponseEntity.ok(response);
+        System.out.println("Streaming chat request - User: " + userEmail + ", Type: " + queryType);
 
-        } catch (Exception e) {
-            System.out.println("Error in chat: " + e.getMessage());
-            response.put("success", false);
-            response.put("message", "Sorry, I encountered an error. Please try again later.");
-            return ResponseEntity.internalServerError().body(response);
+        if (message == null || message.trim().isEmpty()) {
+            return Flux.just(ServerSentEvent.<Map<String, Object>>builder()
+                    .event("error")
+                    .data(Map.of("success", false, "message", "Message cannot be empty"))
+                    .build());
         }
+
+        Flux<ServerSentEvent<Map<String, Object>>> chunks = Flux
+                .defer(() -> geminiService.streamChatResponse(buildPrompt(message, queryType), "general"))
+                .map(chunk -> ServerSentEvent.<Map<String, Object>>builder()
+                        .event("chunk")
+                        .data(Map.of("text", chunk))
+                        .build());
+
+        return chunks
+                .doOnComplete(() -> authService.incrementUserStats(userEmail, "chat"))
+                .concatWith(Mono.just(ServerSentEvent.<Map<String, Object>>builder()
+                        .event("done")
+                        .data(Map.of("success", true, "queryType", queryType != null ? queryType : "general"))
+                        .build()))
+                .onErrorResume(e -> {
+                    System.out.println("Error in streaming chat: " + e.getMessage());
+                    Map<String, Object> error = e instanceof LlmOverloadedException overloaded
+                            ? Map.of("success", false, "message", overloaded.getMessage(), "retryAfter", overloaded.getRetryAfter().toSeconds())
+                            : Map.of("success", false, "message", chatErrorMessage(e));
+                    return Flux.just(ServerSentEvent.<Map<String, Object>>builder()
+                            .event("error")
+                            .data(error)
+                            .build());
+                });
     }
+
     @PostMapping("/generate-quiz")
-    public ResponseEntity<Map<String, Object>> generateQuiz(@RequestBody Map<String, String> request) {
+    public Mono<ResponseEntity<Map<String, Object>>> generateQuiz(@RequestBody Map<String, String> request,
+            @RequestAttribute(AuthTokenFilter.USER_EMAIL) String userEmail) {
         String topic = request.get("topic");
         String questionCount = request.get("questionCount");
         String difficulty = request.get("difficulty");
-        String userEmail = request.get("userEmail");
 
         System.out.println("Quiz request - Topic: " + topic + ", Questions: " + questionCount + ", User: " + userEmail);
 
         Map<String, Object> response = new HashMap<>();
 
-        try {
-            if (topic == null || topic.trim().isEmpty()) {
-                response.put("success", false);
-                response.put("message", "Quiz topic is required");
-                return ResponseEntity.badRequest().body(response);
-            }
+        if (topic == null || topic.trim().isEmpty()) {
+            response.put("success", false);
+            response.put("message", "Quiz topic is required");
+            return Mono.just(ResponseEntity.badRequest().body(response));
+        }
 
-            int count;
-            try {
-                count = Integer.parseInt(questionCount);
-                if (count < 1 || count > 20) {
-                    response.put("success", false);
-                    response.put("message", "Question count must be between 1 and 20");
-                    return ResponseEntity.badRequest().body(response);
-                }
-            } catch (NumberFormatException e) {
+        int count;
+        try {
+            count = Integer.parseInt(questionCount);
+            if (count < 1 || count > 20) {
                 response.put("success", false);
-                response.put("message", "Invalid question count");
-                return ResponseEntity.badRequest().body(response);
+                response.put("message", "Question count must be between 1 and 20");
+                return Mono.just(ResponseEntity.badRequest().body(response));
             }
-
-            String prompt = buildQuizPrompt(topic, count, difficulty);
-            String aiResponse = geminiService.generateResponse(prompt);
-            Map<String, Object> quizData = parseQuizResponse(aiResponse, topic, count);
-            System.out.println("✅ Quiz generated successfully");
-            response.put("success", true);
-            response.put("quiz", quizData);
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            System.out.println("Error generating quiz: " + e.getMessage());
-            e.printStackTrace();
+        } catch (NumberFormatException e) {
             response.put("success", false);
-            response.put("message", "Failed to generate quiz. Please try again.");
-            return ResponseEntity.internalServerError().body(response);
+            response.put("message", "Invalid question count");
+            return Mono.just(ResponseEntity.badRequest().body(response));
         }
+
+        return questionBankService.getQuiz(topic, count, difficulty)
+                .map(quiz -> {
+                    System.out.println("✅ Quiz generated successfully");
+                    authService.incrementUserStats(userEmail, "quiz");
+                    response.put("success", true);
+                    response.put("quiz", quiz);
+                    // Fewer questions than requested when repairs could not make up for rejected ones
+                    response.put("requestedCount", count);
+                    response.put("partial", quiz.questions().size() < count);
+                    return ResponseEntity.ok(response);
+                })
+                .onErrorResume(e -> !(e instanceof LlmOverloadedException), e -> {
+                    System.out.println("Error generating quiz: " + e.getMessage());
+                    e.printStackTrace();
+                    response.put("success", false);
+                    response.put("message", "Failed to generate quiz. Please try again.");
+                    return Mono.just(ResponseEntity.internalServerError().body(response));
+                });
     }
     @PostMapping("/analyze-document")
-    public ResponseEntity<Map<String, Object>> analyzeDocument(
+    public Mono<ResponseEntity<Map<String, Object>>> analyzeDocument(
             @RequestParam("file") MultipartFile file,
             @RequestParam(value = "instructions", required = false) String instructions,
-            @RequestParam("userEmail") String userEmail) {
+            @RequestAttribute(AuthTokenFilter.USER_EMAIL) String userEmail) {
 
         System.out.println("========== ENHANCED DOCUMENT ANALYSIS ==========");
         System.out.println("File: " + file.getOriginalFilename());
         System.out.println("Instructions: " + instructions);
         Map<String, Object> response = new HashMap<>();
-        try {
-            if (file.isEmpty()) {
-                response.put("success", false);
-                response.put("message", "Please select a file");
-                return ResponseEntity.badRequest().body(response);
-            }
-            if (file.getSize() > 5 * 1024 * 1024) {
-                response.put("success", false);
-                response.put("message", "File size must be less than 5MB");
-                return ResponseEntity.badRequest().body(response);
-            }
-            String contentType = file.getContentType();
-            if (!isSupportedFileType(contentType)) {
-                response.put("success", false);
-                response.put("message", "Unsupported file type. Please upload PDF, image, or text files.");
-                return ResponseEntity.badRequest().body(response);
-            }
+        if (file.isEmpty()) {
+            response.put("success", false);
+            response.put("message", "Please select a file");
+            return Mono.just(ResponseEntity.badRequest().body(response));
+        }
+        String contentType = file.getContentType();
+        if (!isSupportedFileType(contentType)) {
+            response.put("success", false);
+            response.put("message", "Unsupported file type. Please upload PDF, image, or text files.");
+            return Mono.just(ResponseEntity.badRequest().body(response));
+        }
+
+        // The multipart parser already rejected anything over the global limit; this applies the user's own
+        return Mono.fromCallable(() -> authService.getMaxFileSizeMb(userEmail))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(maxFileSizeMb -> {
+                    if (file.getSize() > DataSize.ofMegabytes(maxFileSizeMb).toBytes()) {
+                        response.put("success", false);
+                        response.put("message", "File size must be less than " + maxFileSizeMb + "MB");
+                        return Mono.just(ResponseEntity.badRequest().body(response));
+                    }
+                    return analyzeUpload(file, instructions, userEmail, contentType, response);
+                });
+    }
 
-            String analysisResult = geminiService.analyzeDocument(file, instructions);
+    private Mono<ResponseEntity<Map<String, Object>>> analyzeUpload(MultipartFile file, String instructions, String userEmail,
+                                                                     String contentType, Map<String, Object> response) {
+        // Indexing runs first so the analysis reuses the text it extracted from the extraction cache
+        Mono<Optional<DocumentIndexService.IndexedDocument>> indexed = documentIndexService.index(userEmail, file)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .onErrorResume(e -> {
+                    System.out.println("Document indexing failed: " + e.getMessage());
+                    return Mono.just(Optional.empty());
+                });
 
-            System.out.println("ENHANCED AI ANALYSIS COMPLETED");
+        return indexed.flatMap(document -> geminiService.analyzeDocument(file, instructions)
+                .map(analysisResult -> {
+                    System.out.println("ENHANCED AI ANALYSIS COMPLETED");
+                    authService.incrementUserStats(userEmail, "document");
 
-            response.put("success", true);
-            response.put("analysis", analysisResult);
-            response.put("fileName", file.getOriginalFilename());
-            response.put("fileSize", file.getSize());
-            response.put("fileType", contentType);
+                    response.put("success", true);
+                    response.put("analysis", analysisResult);
+                    response.put("fileName", file.getOriginalFilename());
+                    response.put("fileSize", file.getSize());
+                    response.put("fileType", contentType);
+                    document.ifPresent(d -> response.put("documentId", d.documentId()));
 
-            return ResponseEntity.ok(response);
+                    return ResponseEntity.ok(response);
+                }))
+                .onErrorResume(e -> !(e instanceof LlmOverloadedException), e -> {
+                    System.out.println("Error in enhanced document analysis: " + e.getMessage());
+                    e.printStackTrace();
 
-        } catch (Exception e) {
-            System.out.println("Error in enhanced document analysis: " + e.getMessage());
-            e.printStackTrace();
+                    response.put("success", false);
+                    response.put("message", "Failed to analyze document: " + e.getMessage());
+                    return Mono.just(ResponseEntity.internalServerError().body(response));
+                });
+    }
+    @PostMapping("/ask-document")
+    public Mono<ResponseEntity<Map<String, Object>>> askDocument(@RequestBody Map<String, String> request,
+            @RequestAttribute(AuthTokenFilter.USER_EMAIL) String userEmail) {
+        String question = request.get("question");
+        String documentId = request.get("documentId");
 
+        System.out.println("Document question - User: " + userEmail + ", Document: " + documentId);
+
+        Map<String, Object> response = new HashMap<>();
+        if (question == null || question.trim().isEmpty()) {
             response.put("success", false);
-            response.put("message", "Failed to analyze document: " + e.getMessage());
-            return ResponseEntity.internalServerError().body(response);
+            response.put("message", "Question is required");
+            return Mono.just(ResponseEntity.badRequest().body(response));
         }
+
+        return documentIndexService.search(userEmail, question, documentId)
+                .flatMap(passages -> {
+                    if (passages.isEmpty()) {
+                        response.put("success", false);
+                        response.put("message", "No uploaded document content matches this question. Upload the document or rephrase the question.");
+                        return Mono.just(ResponseEntity.ok(response));
+                    }
+                    return geminiService.answerFromDocuments(question, passages)
+                            .map(answer -> {
+                                List<Map<String, Object>> sources = new ArrayList<>();
+                                for (DocumentChunk passage : passages) {
+                                    sources.add(Map.of("fileName", passage.getFileName(), "passage", passage.getChunkIndex() + 1));
+                                }
+                                authService.incrementUserStats(userEmail, "chat");
+                                response.put("success", true);
+                                response.put("answer", answer);
+                                response.put("sources", sources);
+                                return ResponseEntity.ok(response);
+                            });
+                })
+                .onErrorResume(e -> !(e instanceof LlmOverloadedException), e -> {
+                    System.out.println("Error answering document question: " + e.getMessage());
+                    response.put("success", false);
+                    response.put("message", "Failed to answer the question: " + e.getMessage());
+                    return Mono.just(ResponseEntity.internalServerError().body(response));
+                });
+    }
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    public ResponseEntity<Map<String, Object>> handleUploadTooLarge(MaxUploadSizeExceededException e) {
+        System.out.println("Rejected upload: " + e.getMessage());
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", "File size must be less than " + maxUploadSize.toMegabytes() + "MB");
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(response);
     }
+
+    @ExceptionHandler(LlmOverloadedException.class)
+    public ResponseEntity<Map<String, Object>> handleOverloaded(LlmOverloadedException e) {
+        System.out.println("Rejected by bulkhead '" + e.getBulkhead() + "'");
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", e.getMessage());
+        response.put("retryAfter", e.getRetryAfter().toSeconds());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter().toSeconds()))
+                .body(response);
+    }
+
     @GetMapping("/health")
     public ResponseEntity<Map<String, Object>> health() {
         Map<String, Object> response = new HashMap<>();
@@ -151,7 +311,15 @@ public class ChatController {
         response.put("timestamp", System.currentTimeMillis());
         return ResponseEntity.ok(response);
     }
+    // Gemini API errors carry a message meant for the user; anything else gets a generic one
+    private String chatErrorMessage(Throwable e) {
+        return e instanceof GeminiApiException ? e.getMessage() : "Sorry, I encountered an error. Please try again later.";
+    }
+
     private String buildPrompt(String message, String queryType) {
+        if (queryType == null) {
+            return message;
+        }
         switch (queryType) {
             case "code":
                 return "You are an expert programming assistant. Provide clear, concise code help:\n\n" + message;
@@ -165,15 +333,6 @@ public class ChatController {
                 return message;
         }
     }
-    private String buildQuizPrompt(String topic, int questionCount, String difficulty) {
-        return String.format(
-                "Generate a %d-question multiple choice quiz on the topic: '%s'. " +
-                        "Difficulty: %s. " +
-                        "Format: Question, then 4 options (A, B, C, D), then 'Correct: X' where X is A,B,C, or D. " +
-                        "Make questions clear and options distinct.",
-                questionCount, topic, difficulty != null ? difficulty : "medium"
-        );
-    }
     private String buildSummaryPrompt(String text, String summaryType) {
         String typeInstruction = "";
         if ("brief".equals(summaryType)) {
@@ -188,15 +347,6 @@ public class ChatController {
                 typeInstruction, text
         );
     }
-    private Map<String, Object> parseQuizResponse(String aiResponse, String topic, int count) {
-        // Simple parsing - in real implementation, you'd want more robust parsing
-        Map<String, Object> quizData = new HashMap<>();
-        quizData.put("topic", topic);
-        quizData.put("totalQuestions", count);
-        quizData.put("questions", aiResponse);
-        System.out.println("Quiz response (needs parsing): " + aiResponse);
-        return quizData;
-    }
     private String simulateDocumentAnalysis(MultipartFile file, String instructions) {
         String baseAnalysis = String.format(
                 "Analysis of document: %s (%d bytes)\n\n",
@@ -0,0 +1,52 @@
+package com.studybuddy.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Request body of the Gemini generateContent / streamGenerateContent endpoints.
+ */
+public record GeminiRequest(List<Content> contents,
+                            GenerationConfig generationConfig,
+                            List<SafetySetting> safetySettings) {
+
+    private static final List<SafetySetting> DEFAULT_SAFETY_SETTINGS = List.of(
+            new SafetySetting("HARM_CATEGORY_HARASSMENT", "BLOCK_MEDIUM_AND_ABOVE"),
+            new SafetySetting("HARM_CATEGORY_HATE_SPEECH", "BLOCK_MEDIUM_AND_ABOVE"),
+            new SafetySetting("HARM_CATEGORY_SEXUALLY_EXPLICIT", "BLOCK_MEDIUM_AND_ABOVE"),
+            new SafetySetting("HARM_CATEGORY_DANGEROUS_CONTENT", "BLOCK_MEDIUM_AND_ABOVE")
+    );
+
+    public static GeminiRequest forPrompt(String text, double temperature, int maxOutputTokens) {
+        return forPrompt(text, temperature, maxOutputTokens, null);
+    }
+
+    /**
+     * With a non-null schema the model is asked for JSON output conforming to it.
+     */
+    public static GeminiRequest forPrompt(String text, double temperature, int maxOutputTokens,
+                                          Map<String, Object> responseSchema) {
+        return new GeminiRequest(
+                List.of(new Content(List.of(new Part(text)))),
+                new GenerationConfig(temperature, 40, 0.95, maxOutputTokens,
+                        responseSchema != null ? "application/json" : null, responseSchema),
+                DEFAULT_SAFETY_SETTINGS
+        );
+    }
+
+    public record Content(List<Part> parts) {
+    }
+
+    public record Part(String text) {
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record GenerationConfig(double temperature, int topK, double topP, int maxOutputTokens,
+                                   String responseMimeType, Map<String, Object> responseSchema) {
+    }
+
+    public record SafetySetting(String category, String threshold) {
+    }
+}
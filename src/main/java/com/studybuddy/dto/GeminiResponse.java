@@ -0,0 +1,21 @@
+package com.studybuddy.dto;
+
+/**
+ * The parts of a Gemini generateContent reply the application uses.
+ * {@code text} is the concatenation of the first candidate's parts, or null when absent.
+ * {@code blockReason} is set when the prompt itself was blocked and no candidates were generated.
+ */
+public record GeminiResponse(String text,
+                             String finishReason,
+                             Usage usage,
+                             String errorMessage,
+                             String blockReason,
+                             boolean empty) {
+
+    public boolean hasText() {
+        return text != null;
+    }
+
+    public record Usage(int promptTokenCount, int candidatesTokenCount, int totalTokenCount) {
+    }
+}
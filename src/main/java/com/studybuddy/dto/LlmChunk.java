@@ -0,0 +1,14 @@
+package com.studybuddy.dto;
+
+/**
+ * One piece of a streamed reply. {@code text} is never null but may be empty; {@code finishReason}
+ * is only set on the chunk that ends the reply (e.g. "STOP", "MAX_TOKENS", "SAFETY").
+ */
+public record LlmChunk(String text, String finishReason) {
+
+    public static final String STOP = "STOP";
+
+    public static LlmChunk text(String text) {
+        return new LlmChunk(text, null);
+    }
+}
@@ -0,0 +1,18 @@
+package com.studybuddy.dto;
+
+import java.util.Map;
+
+/**
+ * Provider-neutral generation request handed to an {@code LlmClient}. When a response schema
+ * is set the reply must be JSON matching it (OpenAPI-style schema as accepted by Gemini).
+ */
+public record LlmRequest(String prompt,
+                         String queryType,
+                         double temperature,
+                         int maxOutputTokens,
+                         Map<String, Object> responseSchema) {
+
+    public LlmRequest(String prompt, String queryType, double temperature, int maxOutputTokens) {
+        this(prompt, queryType, temperature, maxOutputTokens, null);
+    }
+}
@@ -0,0 +1,44 @@
+package com.studybuddy.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * A generated multiple choice quiz, parsed and validated on the server so clients render it as-is.
+ */
+public record Quiz(String topic, String difficulty, List<Question> questions) {
+
+    public static final int OPTIONS_PER_QUESTION = 4;
+
+    public record Question(String question, List<Option> options, String explanation) {
+
+        /**
+         * Exactly four distinct, non-blank options of which exactly one is correct.
+         */
+        @JsonIgnore
+        public boolean isValid() {
+            if (question == null || question.isBlank() || options == null || options.size() != OPTIONS_PER_QUESTION) {
+                return false;
+            }
+            Set<String> seen = new HashSet<>();
+            int correct = 0;
+            for (Option option : options) {
+                if (option.text() == null || option.text().isBlank()
+                        || !seen.add(option.text().trim().toLowerCase(Locale.ROOT))) {
+                    return false;
+                }
+                if (option.correct()) {
+                    correct++;
+                }
+            }
+            return correct == 1;
+        }
+    }
+
+    public record Option(String text, boolean correct) {
+    }
+}
@@ -0,0 +1,131 @@
+package com.studybuddy.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A validated quiz question stored in the question bank for a normalized topic and difficulty.
+ * The fingerprint is the question's sorted content words and is unique per topic and difficulty.
+ */
+@Document(collection = "question_bank")
+public class BankedQuestion {
+
+    @Id
+    private String id;
+
+    @Field("topic_key")
+    private String topicKey;
+
+    @Field("difficulty")
+    private String difficulty;
+
+    @Field("question")
+    private String question;
+
+    @Field("options")
+    private List<String> options;
+
+    @Field("correct_index")
+    private Integer correctIndex;
+
+    @Field("explanation")
+    private String explanation;
+
+    @Field("fingerprint")
+    private String fingerprint;
+
+    @Field("created_at")
+    private LocalDateTime createdAt;
+
+    public BankedQuestion() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public BankedQuestion(String topicKey, String difficulty, String question, List<String> options,
+                          Integer correctIndex, String explanation, String fingerprint) {
+        this.topicKey = topicKey;
+        this.difficulty = difficulty;
+        this.question = question;
+        this.options = options;
+        this.correctIndex = correctIndex;
+        this.explanation = explanation;
+        this.fingerprint = fingerprint;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getTopicKey() {
+        return topicKey;
+    }
+
+    public void setTopicKey(String topicKey) {
+        this.topicKey = topicKey;
+    }
+
+    public String getDifficulty() {
+        return difficulty;
+    }
+
+    public void setDifficulty(String difficulty) {
+        this.difficulty = difficulty;
+    }
+
+    public String getQuestion() {
+        return question;
+    }
+
+    public void setQuestion(String question) {
+        this.question = question;
+    }
+
+    public List<String> getOptions() {
+        return options;
+    }
+
+    public void setOptions(List<String> options) {
+        this.options = options;
+    }
+
+    public Integer getCorrectIndex() {
+        return correctIndex;
+    }
+
+    public void setCorrectIndex(Integer correctIndex) {
+        this.correctIndex = correctIndex;
+    }
+
+    public String getExplanation() {
+        return explanation;
+    }
+
+    public void setExplanation(String explanation) {
+        this.explanation = explanation;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
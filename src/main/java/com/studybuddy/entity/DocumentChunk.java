@@ -0,0 +1,120 @@
+package com.studybuddy.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * A passage of a user's uploaded document in the retrieval index. The document id is a content
+ * hash of the extracted text, so re-uploading a file does not index it twice. Term counts are
+ * stored with the chunk so the in-memory BM25 index can be rebuilt without re-tokenizing.
+ */
+@Document(collection = "document_chunks")
+public class DocumentChunk {
+
+    @Id
+    private String id;
+
+    @Field("user_email")
+    private String userEmail;
+
+    @Field("document_id")
+    private String documentId;
+
+    @Field("file_name")
+    private String fileName;
+
+    @Field("chunk_index")
+    private Integer chunkIndex;
+
+    @Field("text")
+    private String text;
+
+    @Field("term_counts")
+    private Map<String, Integer> termCounts;
+
+    @Field("created_at")
+    private LocalDateTime createdAt;
+
+    public DocumentChunk() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public DocumentChunk(String userEmail, String documentId, String fileName, Integer chunkIndex,
+                         String text, Map<String, Integer> termCounts) {
+        this.userEmail = userEmail;
+        this.documentId = documentId;
+        this.fileName = fileName;
+        this.chunkIndex = chunkIndex;
+        this.text = text;
+        this.termCounts = termCounts;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getUserEmail() {
+        return userEmail;
+    }
+
+    public void setUserEmail(String userEmail) {
+        this.userEmail = userEmail;
+    }
+
+    public String getDocumentId() {
+        return documentId;
+    }
+
+    public void setDocumentId(String documentId) {
+        this.documentId = documentId;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public Integer getChunkIndex() {
+        return chunkIndex;
+    }
+
+    public void setChunkIndex(Integer chunkIndex) {
+        this.chunkIndex = chunkIndex;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public Map<String, Integer> getTermCounts() {
+        return termCounts;
+    }
+
+    public void setTermCounts(Map<String, Integer> termCounts) {
+        this.termCounts = termCounts;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,81 @@
+package com.studybuddy.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+
+/**
+ * How often a quiz topic has been requested at a difficulty. The id is
+ * {@code <topic_key>|<difficulty>}; popular topics are filled into the question bank ahead of time.
+ */
+@Document(collection = "quiz_topics")
+public class QuizTopic {
+
+    @Id
+    private String id;
+
+    @Field("topic")
+    private String topic;
+
+    @Field("topic_key")
+    private String topicKey;
+
+    @Field("difficulty")
+    private String difficulty;
+
+    @Field("request_count")
+    private Long requestCount = 0L;
+
+    @Field("last_requested_at")
+    private LocalDateTime lastRequestedAt;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public void setTopic(String topic) {
+        this.topic = topic;
+    }
+
+    public String getTopicKey() {
+        return topicKey;
+    }
+
+    public void setTopicKey(String topicKey) {
+        this.topicKey = topicKey;
+    }
+
+    public String getDifficulty() {
+        return difficulty;
+    }
+
+    public void setDifficulty(String difficulty) {
+        this.difficulty = difficulty;
+    }
+
+    public Long getRequestCount() {
+        return requestCount;
+    }
+
+    public void setRequestCount(Long requestCount) {
+        this.requestCount = requestCount;
+    }
+
+    public LocalDateTime getLastRequestedAt() {
+        return lastRequestedAt;
+    }
+
+    public void setLastRequestedAt(LocalDateTime lastRequestedAt) {
+        this.lastRequestedAt = lastRequestedAt;
+    }
+}
@@ -0,0 +1,15 @@
+package com.studybuddy.repository;
+
+import com.studybuddy.entity.DocumentChunk;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface DocumentChunkRepository extends MongoRepository<DocumentChunk, String> {
+
+    List<DocumentChunk> findByUserEmail(String userEmail);
+
+    long countByUserEmailAndDocumentId(String userEmail, String documentId);
+}
@@ -0,0 +1,17 @@
+package com.studybuddy.repository;
+
+import com.studybuddy.entity.BankedQuestion;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface QuestionBankRepository extends MongoRepository<BankedQuestion, String> {
+
+    long countByTopicKeyAndDifficulty(String topicKey, String difficulty);
+
+    @Query(value = "{ 'topic_key': ?0, 'difficulty': ?1 }", fields = "{ 'question': 1, 'fingerprint': 1 }")
+    List<BankedQuestion> findQuestionTextsByTopicKeyAndDifficulty(String topicKey, String difficulty);
+}
@@ -0,0 +1,14 @@
+package com.studybuddy.repository;
+
+import com.studybuddy.entity.QuizTopic;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface QuizTopicRepository extends MongoRepository<QuizTopic, String> {
+
+    List<QuizTopic> findByRequestCountGreaterThanEqual(Long minRequests, Pageable pageable);
+}
@@ -12,6 +12,12 @@ import java.util.Optional;
 @Repository
 public interface UserRepository extends MongoRepository<User, String> {
     Optional<User> findByEmail(String email);
+
+    @Query(value = "{ 'email': ?0 }", fields = "{ 'name': 1, 'password': 1, 'isActive': 1 }")
+    Optional<User> findLoginByEmail(String email);
+
+    @Query(value = "{ 'email': ?0 }", fields = "{ 'preferences.maxFileSize': 1 }")
+    Optional<User> findUploadPreferencesByEmail(String email);
     boolean existsByEmail(String email);
 
     List<User> findByIsActiveTrue();
@@ -39,6 +45,10 @@ public interface UserRepository extends MongoRepository<User, String> {
     @Update("{ '$set': { 'lastLogin': ?1, 'updatedAt': ?1 } }")
     void updateLastLogin(String email, java.time.LocalDateTime lastLogin);
 
+    @Query("{ 'email': ?0 }")
+    @Update("{ '$set': { 'password': ?1, 'updatedAt': ?2 } }")
+    void updatePassword(String email, String password, java.time.LocalDateTime updatedAt);
+
     @Query("{ 'email': ?0 }")
     @Update("{ '$set': { 'preferences.defaultQuizQuestions': ?1, 'updatedAt': ?2 } }")
     void updateDefaultQuizQuestions(String email, Integer defaultQuestions, java.time.LocalDateTime updatedAt);
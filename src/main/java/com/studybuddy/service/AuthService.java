@@ -14,6 +14,15 @@ public class AuthService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserStatsAggregator userStatsAggregator;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private UserCache userCache;
+
     public String registerUser(String name, String email, String password) {
         try {
 
@@ -36,11 +45,14 @@ public class AuthService {
                 return "User already exists with this email";
             }
 
-            User user = new User(name, email, password);
+            User user = new User(name, email, passwordHasher.hash(password));
             userRepository.save(user);
+            userCache.invalidate(email);
 
             return "Registration successful";
 
+        } catch (PasswordHashingBusyException e) {
+            throw e;
         } catch (Exception e) {
             return "Registration failed: " + e.getMessage();
         }
@@ -59,7 +71,8 @@ public class AuthService {
 
             email = email.trim().toLowerCase();
 
-            Optional<User> userOpt = userRepository.findByEmail(email);
+            // lastLogin is written behind with the user stats
+            Optional<User> userOpt = findLoginUser(email);
 
             if (userOpt.isEmpty()) {
                 return "User not found";
@@ -71,31 +84,63 @@ public class AuthService {
                 return "Account is deactivated. Please contact support.";
             }
 
-            if (!user.getPassword().equals(password)) {
+            if (!passwordHasher.matches(password, user.getPassword())) {
                 return "Invalid password";
             }
 
-            user.updateLastLogin();
-            userRepository.save(user);
+            if (passwordHasher.needsRehash(user.getPassword())) {
+                rehashPassword(email, password);
+            }
+
+            userStatsAggregator.recordLogin(email);
 
             return "Login successful - Welcome, " + user.getName();
 
+        } catch (PasswordHashingBusyException e) {
+            throw e;
         } catch (Exception e) {
             return "Login failed: " + e.getMessage();
         }
     }
 
+    // Replaces a legacy plaintext or weaker hash after a successful login; failure leaves the old value usable
+    private void rehashPassword(String email, String password) {
+        try {
+            userRepository.updatePassword(email, passwordHasher.hash(password), LocalDateTime.now());
+            userCache.invalidate(email);
+            System.out.println("Upgraded stored password hash for " + email);
+        } catch (Exception e) {
+            System.out.println("Could not upgrade password hash for " + email + ": " + e.getMessage());
+        }
+    }
+
+    // Cached user if there is one, otherwise a projection of only the fields checked at login
+    private Optional<User> findLoginUser(String email) {
+        return userCache.getIfPresent(email).or(() -> userRepository.findLoginByEmail(email));
+    }
+
     public Optional<User> getUserByEmail(String email) {
         try {
-            if (email == null || email.trim().isEmpty()) {
-                return Optional.empty();
-            }
-            return userRepository.findByEmail(email.trim().toLowerCase());
+            return userCache.get(email, userRepository::findByEmail);
         } catch (Exception e) {
             return Optional.empty();
         }
     }
 
+    /**
+     * The user's name and status for issuing refreshed session tokens; empty when the account
+     * no longer exists or is deactivated.
+     */
+    public Optional<User> getActiveLoginUser(String email) {
+        try {
+            return findLoginUser(email)
+                    .filter(user -> Boolean.TRUE.equals(user.getIsActive()));
+        } catch (Exception e) {
+            System.out.println("Could not look up " + email + " for token refresh: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
     public String updateUserPassword(String email, String oldPassword, String newPassword) {
         try {
             Optional<User> userOpt = userRepository.findByEmail(email);
@@ -106,7 +151,7 @@ public class AuthService {
 
             User user = userOpt.get();
 
-            if (!user.getPassword().equals(oldPassword)) {
+            if (!passwordHasher.matches(oldPassword, user.getPassword())) {
                 return "Current password is incorrect";
             }
 
@@ -114,8 +159,9 @@ public class AuthService {
                 return "New password must be at least 6 characters";
             }
 
-            user.setPassword(newPassword);
+            user.setPassword(passwordHasher.hash(newPassword));
             userRepository.save(user);
+            userCache.invalidate(email);
 
             return "Password updated successfully";
 
@@ -139,6 +185,7 @@ public class AuthService {
             User user = userOpt.get();
             user.setName(newName.trim());
             userRepository.save(user);
+            userCache.invalidate(email);
 
             return "Profile updated successfully";
 
@@ -157,12 +204,13 @@ public class AuthService {
 
             User user = userOpt.get();
 
-            if (!user.getPassword().equals(password)) {
+            if (!passwordHasher.matches(password, user.getPassword())) {
                 return "Invalid password";
             }
 
             user.setIsActive(false);
             userRepository.save(user);
+            userCache.invalidate(email);
 
             return "Account deactivated successfully";
 
@@ -183,6 +231,7 @@ public class AuthService {
             user.setIsActive(true);
             user.setLastLogin(LocalDateTime.now());
             userRepository.save(user);
+            userCache.invalidate(email);
 
             return "Account reactivated successfully";
 
@@ -193,14 +242,14 @@ public class AuthService {
 
     public boolean validateUserCredentials(String email, String password) {
         try {
-            Optional<User> userOpt = userRepository.findByEmail(email);
+            Optional<User> userOpt = userCache.get(email, userRepository::findByEmail);
 
             if (userOpt.isEmpty()) {
                 return false;
             }
 
             User user = userOpt.get();
-            return user.getIsActive() && user.getPassword().equals(password);
+            return user.getIsActive() && passwordHasher.matches(password, user.getPassword());
 
         } catch (Exception e) {
             return false;
@@ -209,7 +258,7 @@ public class AuthService {
 
     public User.UserPreferences getUserPreferences(String email) {
         try {
-            Optional<User> userOpt = userRepository.findByEmail(email);
+            Optional<User> userOpt = userCache.get(email, userRepository::findByEmail);
 
             if (userOpt.isPresent()) {
                 User user = userOpt.get();
@@ -223,6 +272,24 @@ public class AuthService {
         }
     }
 
+    /**
+     * The user's upload limit in MB, from the cached user or a projection of just that preference.
+     * Unknown users and lookup failures get the default preference.
+     */
+    public int getMaxFileSizeMb(String email) {
+        int defaultSize = new User.UserPreferences().getMaxFileSize();
+        try {
+            return userCache.getIfPresent(email)
+                    .or(() -> userRepository.findUploadPreferencesByEmail(email))
+                    .map(User::getPreferences)
+                    .map(User.UserPreferences::getMaxFileSize)
+                    .orElse(defaultSize);
+        } catch (Exception e) {
+            System.out.println("Could not read upload limit for " + email + ": " + e.getMessage());
+            return defaultSize;
+        }
+    }
+
     public String updateUserPreferences(String email, User.UserPreferences preferences) {
         try {
             Optional<User> userOpt = userRepository.findByEmail(email);
@@ -234,6 +301,7 @@ public class AuthService {
             User user = userOpt.get();
             user.setPreferences(preferences);
             userRepository.save(user);
+            userCache.invalidate(email);
 
             return "Preferences updated successfully";
 
@@ -242,29 +310,11 @@ public class AuthService {
         }
     }
 
+    /**
+     * Counts the action towards the user's stats. Increments are batched in memory and written
+     * with {@code $inc} by {@link UserStatsAggregator}, so the user document is not read or rewritten.
+     */
     public void incrementUserStats(String email, String actionType) {
-        try {
-            Optional<User> userOpt = userRepository.findByEmail(email);
-
-            if (userOpt.isPresent()) {
-                User user = userOpt.get();
-
-                switch (actionType) {
-                    case "quiz":
-                        user.incrementQuizCount();
-                        break;
-                    case "document":
-                        user.incrementDocumentAnalysisCount();
-                        break;
-                    case "chat":
-                        user.incrementTotalChats();
-                        break;
-                }
-
-                userRepository.save(user);
-            }
-        } catch (Exception e) {
-            System.err.println("Error updating user stats: " + e.getMessage());
-        }
+        userStatsAggregator.record(email, actionType);
     }
 }
\ No newline at end of file
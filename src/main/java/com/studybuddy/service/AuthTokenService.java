@@ -0,0 +1,171 @@
+package com.studybuddy.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.studybuddy.config.AuthTokenProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Issues and verifies HMAC-SHA256 signed JWTs (HS256). Access tokens carry the user's email and
+ * name and are checked on every API request with no database or shared state, so any instance
+ * holding the same secret can verify them. Refresh tokens live longer and are only accepted
+ * by {@code /api/auth/refresh}.
+ */
+@Service
+@EnableConfigurationProperties(AuthTokenProperties.class)
+public class AuthTokenService {
+
+    public static final String ACCESS = "access";
+    public static final String REFRESH = "refresh";
+
+    // Only tokens with exactly this header are accepted, which rules out "alg": "none" and algorithm switching
+    private static final String HEADER = base64(
+            "{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final TypeReference<Map<String, Object>> CLAIMS_TYPE = new TypeReference<>() {};
+
+    private final AuthTokenProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ThreadLocal<Mac> macs;
+
+    public record TokenClaims(String email, String name, String type, Instant expiresAt) {
+    }
+
+    public record TokenPair(String accessToken, String refreshToken, Duration accessTtl) {
+    }
+
+    public AuthTokenService(AuthTokenProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        SecretKeySpec key = new SecretKeySpec(secretBytes(properties.getSecret()), "HmacSHA256");
+        // Mac is not thread-safe; one initialised instance per thread avoids re-keying on every request
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 is not available", e);
+            }
+        });
+        System.out.println("Session tokens: access " + properties.getAccessTtl() + ", refresh " + properties.getRefreshTtl());
+    }
+
+    public TokenPair issue(String email, String name) {
+        return new TokenPair(
+                sign(email, name, ACCESS, properties.getAccessTtl()),
+                sign(email, name, REFRESH, properties.getRefreshTtl()),
+                properties.getAccessTtl());
+    }
+
+    public TokenClaims verifyAccess(String token) {
+        return verify(token, ACCESS);
+    }
+
+    public TokenClaims verifyRefresh(String token) {
+        return verify(token, REFRESH);
+    }
+
+    private String sign(String email, String name, String type, Duration ttl) {
+        Instant now = Instant.now();
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("iss", properties.getIssuer());
+        claims.put("sub", email);
+        claims.put("name", name);
+        claims.put("typ", type);
+        claims.put("iat", now.getEpochSecond());
+        claims.put("exp", now.plus(ttl).getEpochSecond());
+
+        try {
+            String signingInput = HEADER + "." + base64(objectMapper.writeValueAsBytes(claims));
+            meterRegistry.counter("auth.token.issued", "type", type).increment();
+            return signingInput + "." + base64(hmac(signingInput));
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not sign session token", e);
+        }
+    }
+
+    private TokenClaims verify(String token, String expectedType) {
+        try {
+            TokenClaims claims = parse(token, expectedType);
+            meterRegistry.counter("auth.token.verified", "type", expectedType).increment();
+            return claims;
+        } catch (InvalidTokenException e) {
+            meterRegistry.counter("auth.token.rejected", "type", expectedType, "reason", e.getReason()).increment();
+            throw e;
+        }
+    }
+
+    private TokenClaims parse(String token, String expectedType) {
+        if (token == null || token.isEmpty()) {
+            throw new InvalidTokenException("missing");
+        }
+        int firstDot = token.indexOf('.');
+        int lastDot = token.lastIndexOf('.');
+        if (firstDot < 0 || firstDot == lastDot || !token.startsWith(HEADER + ".")) {
+            throw new InvalidTokenException("malformed");
+        }
+
+        Map<String, Object> claims;
+        try {
+            byte[] signature = DECODER.decode(token.substring(lastDot + 1));
+            if (!MessageDigest.isEqual(signature, hmac(token.substring(0, lastDot)))) {
+                throw new InvalidTokenException("signature");
+            }
+            claims = objectMapper.readValue(DECODER.decode(token.substring(firstDot + 1, lastDot)), CLAIMS_TYPE);
+        } catch (InvalidTokenException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new InvalidTokenException("malformed");
+        }
+
+        if (!properties.getIssuer().equals(claims.get("iss")) || !expectedType.equals(claims.get("typ"))
+                || !(claims.get("sub") instanceof String email) || !(claims.get("exp") instanceof Number exp)) {
+            throw new InvalidTokenException("claims");
+        }
+        Instant expiresAt = Instant.ofEpochSecond(exp.longValue());
+        if (Instant.now().minus(properties.getClockSkew()).isAfter(expiresAt)) {
+            throw new InvalidTokenException("expired");
+        }
+        Object name = claims.get("name");
+        return new TokenClaims(email, name instanceof String n ? n : "", expectedType, expiresAt);
+    }
+
+    private byte[] hmac(String signingInput) {
+        return macs.get().doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static byte[] secretBytes(String secret) {
+        if (secret == null || secret.isBlank()) {
+            System.out.println("WARNING: auth.token.secret is not set; using a random key. Sessions end on restart "
+                    + "and tokens are only valid on this instance.");
+            byte[] key = new byte[32];
+            new SecureRandom().nextBytes(key);
+            return key;
+        }
+        byte[] key = secret.getBytes(StandardCharsets.UTF_8);
+        if (key.length < 32) {
+            throw new IllegalStateException("auth.token.secret must be at least 32 bytes long");
+        }
+        return key;
+    }
+
+    private static String base64(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,106 @@
+package com.studybuddy.service;
+
+import com.studybuddy.entity.DocumentChunk;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * In-memory BM25 inverted index over one user's document chunks. Postings hold term frequencies
+ * per chunk; document frequencies and the average chunk length are derived from them at query time.
+ */
+final class Bm25Index {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "the", "is", "are", "was", "were", "be", "been", "of", "in", "on", "at", "to", "for",
+            "and", "or", "but", "not", "it", "its", "this", "that", "these", "those", "by", "with", "as",
+            "from", "what", "which", "who", "how", "why", "when", "where", "do", "does", "did", "can",
+            "i", "you", "we", "they", "he", "she", "my", "your", "our", "me", "about", "into", "there");
+
+    private final List<DocumentChunk> chunks = new ArrayList<>();
+    private final List<Integer> lengths = new ArrayList<>();
+    private final Map<String, Map<Integer, Integer>> postings = new HashMap<>();
+    private final Set<String> documentIds = new HashSet<>();
+    private long totalLength;
+
+    static Map<String, Integer> termCounts(String text) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.length() > 1 && !STOP_WORDS.contains(word)) {
+                counts.merge(word, 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    synchronized void add(DocumentChunk chunk) {
+        int id = chunks.size();
+        int length = 0;
+        for (Map.Entry<String, Integer> term : chunk.getTermCounts().entrySet()) {
+            postings.computeIfAbsent(term.getKey(), key -> new HashMap<>()).put(id, term.getValue());
+            length += term.getValue();
+        }
+        chunks.add(chunk);
+        lengths.add(length);
+        documentIds.add(chunk.getDocumentId());
+        totalLength += length;
+    }
+
+    synchronized boolean contains(String documentId) {
+        return documentIds.contains(documentId);
+    }
+
+    synchronized int size() {
+        return chunks.size();
+    }
+
+    /**
+     * Returns up to {@code k} chunks ranked by BM25 score, restricted to one document when
+     * {@code documentId} is given. Chunks sharing no term with the query are never returned.
+     */
+    synchronized List<DocumentChunk> search(String query, int k, String documentId) {
+        if (chunks.isEmpty()) {
+            return List.of();
+        }
+        double averageLength = Math.max(1.0, (double) totalLength / chunks.size());
+        Map<Integer, Double> scores = new HashMap<>();
+        for (String term : termCounts(query).keySet()) {
+            Map<Integer, Integer> termPostings = postings.get(term);
+            if (termPostings == null) {
+                continue;
+            }
+            double idf = Math.log(1 + (chunks.size() - termPostings.size() + 0.5) / (termPostings.size() + 0.5));
+            for (Map.Entry<Integer, Integer> posting : termPostings.entrySet()) {
+                int id = posting.getKey();
+                if (documentId != null && !documentId.equals(chunks.get(id).getDocumentId())) {
+                    continue;
+                }
+                double tf = posting.getValue();
+                double norm = K1 * (1 - B + B * lengths.get(id) / averageLength);
+                scores.merge(id, idf * tf * (K1 + 1) / (tf + norm), Double::sum);
+            }
+        }
+
+        PriorityQueue<Map.Entry<Integer, Double>> top = new PriorityQueue<>(Map.Entry.comparingByValue());
+        for (Map.Entry<Integer, Double> score : scores.entrySet()) {
+            top.add(score);
+            if (top.size() > k) {
+                top.poll();
+            }
+        }
+        List<DocumentChunk> results = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            results.add(0, chunks.get(top.poll().getKey()));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,153 @@
+package com.studybuddy.service;
+
+import java.time.Duration;
+
+/**
+ * Count-based circuit breaker. While CLOSED it tracks the outcome of the last
+ * {@code windowSize} calls and opens once the failure rate crosses the threshold.
+ * After {@code openDuration} a few trial calls are let through (HALF_OPEN); all of them
+ * must succeed to close the circuit again, any failure re-opens it.
+ * <p>
+ * Outcomes are reported against the {@link Permission} the call was given, and only count in
+ * the state that granted it: a call started before the circuit opened that finishes during
+ * HALF_OPEN is not mistaken for a trial call.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /**
+     * Handed out by {@link #tryAcquirePermission}; {@code epoch} identifies the state that granted it.
+     */
+    public record Permission(long epoch, boolean trial) {
+    }
+
+    private final boolean[] window;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openDurationNanos;
+    private final int halfOpenTrialCalls;
+
+    private State state = State.CLOSED;
+    private int windowIndex;
+    private int recordedCalls;
+    private int failures;
+    private long openedAtNanos;
+    private int trialPermits;
+    private int trialSuccesses;
+    // Bumped on every state change, so outcomes of calls from an earlier state can be ignored
+    private long epoch;
+
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold,
+                          Duration openDuration, int halfOpenTrialCalls) {
+        this.window = new boolean[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationNanos = openDuration.toNanos();
+        this.halfOpenTrialCalls = halfOpenTrialCalls;
+    }
+
+    /**
+     * Returns a permission for one call, or null when the circuit rejects it.
+     */
+    public synchronized Permission tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAtNanos < openDurationNanos) {
+                return null;
+            }
+            transition(State.HALF_OPEN);
+            trialPermits = halfOpenTrialCalls;
+            trialSuccesses = 0;
+            System.out.println("Circuit breaker half-open, sending trial calls");
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialPermits == 0) {
+                return null;
+            }
+            trialPermits--;
+            return new Permission(epoch, true);
+        }
+        return new Permission(epoch, false);
+    }
+
+    public synchronized void onSuccess(Permission permission) {
+        if (permission.epoch() != epoch) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            if (++trialSuccesses >= halfOpenTrialCalls) {
+                close();
+            }
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure(Permission permission) {
+        if (permission.epoch() != epoch) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (recordedCalls >= minimumCalls && (double) failures / recordedCalls >= failureRateThreshold) {
+            open();
+        }
+    }
+
+    /**
+     * Gives back a permission whose call ended without an outcome (cancelled or rejected locally).
+     */
+    public synchronized void release(Permission permission) {
+        if (permission.trial() && permission.epoch() == epoch && trialPermits < halfOpenTrialCalls - trialSuccesses) {
+            trialPermits++;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized Duration remainingOpenTime() {
+        if (state != State.OPEN) {
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos(Math.max(0, openDurationNanos - (System.nanoTime() - openedAtNanos)));
+    }
+
+    private void record(boolean failed) {
+        if (recordedCalls == window.length) {
+            if (window[windowIndex]) {
+                failures--;
+            }
+        } else {
+            recordedCalls++;
+        }
+        window[windowIndex] = failed;
+        if (failed) {
+            failures++;
+        }
+        windowIndex = (windowIndex + 1) % window.length;
+    }
+
+    private void transition(State next) {
+        state = next;
+        epoch++;
+    }
+
+    private void open() {
+        transition(State.OPEN);
+        openedAtNanos = System.nanoTime();
+        System.out.println("Circuit breaker opened after repeated upstream failures");
+    }
+
+    private void close() {
+        transition(State.CLOSED);
+        windowIndex = 0;
+        recordedCalls = 0;
+        failures = 0;
+        System.out.println("Circuit breaker closed, upstream recovered");
+    }
+}
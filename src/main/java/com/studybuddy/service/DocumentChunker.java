@@ -0,0 +1,58 @@
+package com.studybuddy.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits document text into chunks of at most {@code chunkChars} characters, preferring to cut
+ * at a paragraph break, then a sentence end, then whitespace, so chunks read as whole passages.
+ */
+final class DocumentChunker {
+
+    // A cut is only moved back to a nicer boundary within the last fifth of the chunk
+    private static final double BOUNDARY_WINDOW = 0.2;
+
+    private DocumentChunker() {
+    }
+
+    static List<String> split(String text, int chunkChars, int overlapChars) {
+        List<String> chunks = new ArrayList<>();
+        int overlap = Math.max(0, Math.min(overlapChars, chunkChars / 4));
+        int start = 0;
+        while (start < text.length()) {
+            int end = Math.min(text.length(), start + chunkChars);
+            if (end < text.length()) {
+                end = boundaryBefore(text, start, end);
+            }
+            String chunk = text.substring(start, end).trim();
+            if (!chunk.isEmpty()) {
+                chunks.add(chunk);
+            }
+            if (end >= text.length()) {
+                break;
+            }
+            start = Math.max(start + 1, end - overlap);
+        }
+        return chunks;
+    }
+
+    private static int boundaryBefore(String text, int start, int end) {
+        int floor = end - (int) ((end - start) * BOUNDARY_WINDOW);
+        int paragraph = text.lastIndexOf("\n\n", end - 1);
+        if (paragraph >= floor) {
+            return paragraph + 2;
+        }
+        for (int i = end - 1; i >= floor; i--) {
+            char c = text.charAt(i);
+            if ((c == '.' || c == '?' || c == '!') && i + 1 < text.length() && Character.isWhitespace(text.charAt(i + 1))) {
+                return i + 1;
+            }
+        }
+        for (int i = end - 1; i >= floor; i--) {
+            if (Character.isWhitespace(text.charAt(i))) {
+                return i + 1;
+            }
+        }
+        return end;
+    }
+}
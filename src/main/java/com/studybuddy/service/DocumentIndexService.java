@@ -0,0 +1,140 @@
+package com.studybuddy.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.studybuddy.config.DocumentIndexProperties;
+import com.studybuddy.entity.DocumentChunk;
+import com.studybuddy.repository.DocumentChunkRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Retrieval index over each user's uploaded documents. Uploads are split into passages that are
+ * stored in MongoDB with their term counts; questions are answered from the top BM25 passages of
+ * an in-memory index per user, which is rebuilt from MongoDB whenever it is not cached.
+ */
+@Service
+@EnableConfigurationProperties(DocumentIndexProperties.class)
+public class DocumentIndexService {
+
+    private final DocumentIndexProperties properties;
+    private final DocumentTextExtractor textExtractor;
+    private final DocumentChunkRepository chunkRepository;
+    private final MongoTemplate mongoTemplate;
+    private final Cache<String, Bm25Index> indexes;
+
+    private volatile boolean indexesCreated;
+
+    public DocumentIndexService(DocumentIndexProperties properties,
+                                DocumentTextExtractor textExtractor,
+                                DocumentChunkRepository chunkRepository,
+                                MongoTemplate mongoTemplate,
+                                MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.textExtractor = textExtractor;
+        this.chunkRepository = chunkRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.indexes = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxCachedUsers())
+                .expireAfterAccess(properties.getCacheIdleTimeout())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, indexes, "document.index");
+    }
+
+    public record IndexedDocument(String documentId, String fileName, long chunks) {
+    }
+
+    /**
+     * Extracts and indexes the upload for the user. Completes empty when indexing is disabled or
+     * the file has no extractable text; a document the user already uploaded is not indexed again.
+     */
+    public Mono<IndexedDocument> index(String userEmail, MultipartFile file) {
+        if (!properties.isEnabled() || userEmail == null || userEmail.isBlank()) {
+            return Mono.empty();
+        }
+        return Mono.fromCallable(() -> indexBlocking(userEmail, file))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Returns the passages most relevant to the question, optionally limited to one document.
+     */
+    public Mono<List<DocumentChunk>> search(String userEmail, String question, String documentId) {
+        if (!properties.isEnabled()) {
+            return Mono.just(List.of());
+        }
+        return Mono.fromCallable(() -> indexes.get(userEmail, this::load).search(question, properties.getTopK(), documentId))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private IndexedDocument indexBlocking(String userEmail, MultipartFile file) throws Exception {
+        DocumentTextExtractor.ExtractedText extracted = textExtractor.extract(file);
+        if (extracted == null || extracted.text().isBlank()) {
+            return null;
+        }
+        String documentId = digest(extracted.text());
+        long existing = chunkRepository.countByUserEmailAndDocumentId(userEmail, documentId);
+        if (existing > 0) {
+            System.out.println("Document " + file.getOriginalFilename() + " already indexed for " + userEmail);
+            return new IndexedDocument(documentId, file.getOriginalFilename(), existing);
+        }
+
+        createIndexes();
+        List<String> passages = DocumentChunker.split(extracted.text(), properties.getChunkChars(), properties.getOverlapChars());
+        List<DocumentChunk> chunks = new ArrayList<>(passages.size());
+        for (int i = 0; i < passages.size(); i++) {
+            chunks.add(new DocumentChunk(userEmail, documentId, file.getOriginalFilename(), i,
+                    passages.get(i), Bm25Index.termCounts(passages.get(i))));
+        }
+        chunkRepository.saveAll(chunks);
+        // Rebuilt from MongoDB on the next question, so a load racing this upload cannot leave it out
+        indexes.invalidate(userEmail);
+        System.out.println("Indexed " + chunks.size() + " passages of " + file.getOriginalFilename() + " for " + userEmail);
+        return new IndexedDocument(documentId, file.getOriginalFilename(), chunks.size());
+    }
+
+    private Bm25Index load(String userEmail) {
+        Bm25Index index = new Bm25Index();
+        for (DocumentChunk chunk : chunkRepository.findByUserEmail(userEmail)) {
+            index.add(chunk);
+        }
+        System.out.println("Loaded document index for " + userEmail + " with " + index.size() + " passages");
+        return index;
+    }
+
+    private void createIndexes() {
+        if (indexesCreated) {
+            return;
+        }
+        mongoTemplate.indexOps(DocumentChunk.class).createIndex(new Index()
+                .on("user_email", Sort.Direction.ASC)
+                .on("document_id", Sort.Direction.ASC)
+                .named("user_document"));
+        indexesCreated = true;
+    }
+
+    private String digest(String text) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.studybuddy.service;
+
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Extracts the text of uploaded documents up to a character budget. PDFs are read page by page
+ * and extraction stops as soon as the budget is used up; PDFBox keeps at most
+ * {@code document.extraction.pdf-memory} of the parsed file in heap and spills the rest to a
+ * temp file.
+ */
+@Component
+public class DocumentTextExtractor {
+
+    private static final int CHARSET_SAMPLE_BYTES = 64 * 1024;
+    private static final Charset WINDOWS_1252 = Charset.forName("windows-1252");
+
+    private final int maxChars;
+    private final int maxPages;
+    private final long pdfMemoryBytes;
+    private final ExtractedTextCache cache;
+
+    public DocumentTextExtractor(@Value("${document.extraction.max-chars:120000}") int maxChars,
+                                 @Value("${document.extraction.max-pages:100}") int maxPages,
+                                 @Value("${document.extraction.pdf-memory:8MB}") DataSize pdfMemory,
+                                 ExtractedTextCache cache) {
+        this.maxChars = maxChars;
+        this.maxPages = maxPages;
+        this.pdfMemoryBytes = pdfMemory.toBytes();
+        this.cache = cache;
+    }
+
+    /**
+     * @param pagesRead  pages extracted (1 for plain text)
+     * @param totalPages pages in the document (1 for plain text)
+     * @param truncated  whether text beyond the character budget or page limit was left out
+     */
+    public record ExtractedText(String text, int pagesRead, int totalPages, boolean truncated) {
+    }
+
+    /**
+     * Returns null for file types without text extraction support. Repeat uploads of the same
+     * content are served from the {@link ExtractedTextCache} without parsing the file again.
+     */
+    public ExtractedText extract(MultipartFile file) throws IOException {
+        String contentType = file.getContentType();
+        if (!"text/plain".equals(contentType) && !"application/pdf".equals(contentType)) {
+            return null;
+        }
+        if (!cache.isEnabled()) {
+            return extractUncached(file, contentType);
+        }
+
+        String key = contentKey(file, contentType);
+        ExtractedText cached = cache.get(key);
+        if (cached != null) {
+            System.out.println("Extracted text cache hit for " + file.getOriginalFilename());
+            return cached;
+        }
+        ExtractedText extracted = extractUncached(file, contentType);
+        cache.put(key, extracted);
+        return extracted;
+    }
+
+    private ExtractedText extractUncached(MultipartFile file, String contentType) throws IOException {
+        return "application/pdf".equals(contentType) ? extractPdf(file) : extractPlainText(file);
+    }
+
+    // SHA-256 of the upload; the type and extraction limits are mixed in since they change the result
+    private String contentKey(MultipartFile file, String contentType) throws IOException {
+        MessageDigest sha256;
+        try {
+            sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        sha256.update((contentType + "|" + maxChars + "|" + maxPages + "|").getBytes(StandardCharsets.UTF_8));
+        try (InputStream in = file.getInputStream()) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                sha256.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(sha256.digest());
+    }
+
+    private ExtractedText extractPlainText(MultipartFile file) throws IOException {
+        try (BufferedInputStream in = new BufferedInputStream(file.getInputStream(), CHARSET_SAMPLE_BYTES);
+             Reader reader = new InputStreamReader(in, detectCharset(in))) {
+            // One character past the budget tells whether anything was cut off
+            char[] buffer = new char[maxChars + 1];
+            int length = 0;
+            int read;
+            while (length < buffer.length && (read = reader.read(buffer, length, buffer.length - length)) != -1) {
+                length += read;
+            }
+            boolean truncated = length > maxChars;
+            return new ExtractedText(new String(buffer, 0, Math.min(length, maxChars)), 1, 1, truncated);
+        }
+    }
+
+    /**
+     * Picks the charset from a byte order mark, else UTF-8 if the leading bytes decode cleanly,
+     * else Windows-1252, which most legacy Western text files use. A UTF-8 BOM is skipped.
+     */
+    private static Charset detectCharset(BufferedInputStream in) throws IOException {
+        in.mark(CHARSET_SAMPLE_BYTES);
+        byte[] sample = in.readNBytes(CHARSET_SAMPLE_BYTES);
+        in.reset();
+
+        if (sample.length >= 3 && (sample[0] & 0xFF) == 0xEF && (sample[1] & 0xFF) == 0xBB && (sample[2] & 0xFF) == 0xBF) {
+            in.skipNBytes(3);
+            return StandardCharsets.UTF_8;
+        }
+        if (sample.length >= 2 && ((sample[0] & 0xFF) == 0xFE && (sample[1] & 0xFF) == 0xFF
+                || (sample[0] & 0xFF) == 0xFF && (sample[1] & 0xFF) == 0xFE)) {
+            // The UTF-16 decoder reads the BOM to pick the byte order
+            return StandardCharsets.UTF_16;
+        }
+
+        CharsetDecoder utf8 = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        // Not end of input, so a multi-byte sequence cut off by the sample size is not an error
+        CoderResult result = utf8.decode(ByteBuffer.wrap(sample), CharBuffer.allocate(sample.length), false);
+        return result.isError() ? WINDOWS_1252 : StandardCharsets.UTF_8;
+    }
+
+    private ExtractedText extractPdf(MultipartFile file) throws IOException {
+        PDDocument document = null;
+        try (InputStream in = file.getInputStream()) {
+            document = PDDocument.load(in, MemoryUsageSetting.setupMixed(pdfMemoryBytes));
+            int totalPages = document.getNumberOfPages();
+            int lastPage = Math.min(totalPages, maxPages);
+
+            PDFTextStripper stripper = new PDFTextStripper();
+            StringBuilder text = new StringBuilder(Math.min(maxChars, 64 * 1024));
+            boolean truncated = lastPage < totalPages;
+            int pagesRead = 0;
+            for (int page = 1; page <= lastPage; page++) {
+                stripper.setStartPage(page);
+                stripper.setEndPage(page);
+                String pageText = stripper.getText(document);
+                pagesRead++;
+
+                int remaining = maxChars - text.length();
+                if (pageText.length() > remaining) {
+                    text.append(pageText, 0, remaining);
+                    truncated = true;
+                    break;
+                }
+                text.append(pageText);
+            }
+            return new ExtractedText(text.toString(), pagesRead, totalPages, truncated);
+        } finally {
+            if (document != null) {
+                document.close();
+            }
+        }
+    }
+}
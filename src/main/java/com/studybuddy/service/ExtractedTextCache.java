@@ -0,0 +1,204 @@
+package com.studybuddy.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Local disk cache of extracted document text, keyed by a content hash of the upload so a
+ * re-uploaded file skips extraction regardless of its name or the instructions sent with it.
+ * Entries are evicted least recently used first once the directory exceeds
+ * {@code document.text-cache.max-size}; access order survives restarts through file mtimes.
+ */
+@Component
+public class ExtractedTextCache {
+
+    private static final String SUFFIX = ".json";
+
+    // Keys are SHA-256 hex digests; temp files are the key plus the random number added by createTempFile
+    private static final Pattern ENTRY_NAME = Pattern.compile("[0-9a-f]{64}\\.json");
+    private static final Pattern TEMP_NAME = Pattern.compile("[0-9a-f]{64}\\d*\\.tmp");
+
+    // Younger temp files may still be written by another instance sharing the directory
+    private static final Duration STALE_TEMP_AGE = Duration.ofHours(1);
+
+    private final boolean enabled;
+    private final Path directory;
+    private final long maxBytes;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Entry name -> size in bytes, in access order
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public ExtractedTextCache(@Value("${document.text-cache.enabled:true}") boolean enabled,
+                              @Value("${document.text-cache.dir:${java.io.tmpdir}/study-buddy/extracted-text}") Path directory,
+                              @Value("${document.text-cache.max-size:256MB}") DataSize maxSize,
+                              MeterRegistry meterRegistry) {
+        this.directory = directory;
+        this.maxBytes = maxSize.toBytes();
+        this.enabled = enabled && prepareDirectory();
+
+        this.hits = Counter.builder("document.text.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("document.text.cache").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("document.text.cache.size", this, cache -> cache.currentBytes())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the cached extraction for the content key, or null on a miss.
+     */
+    public DocumentTextExtractor.ExtractedText get(String key) {
+        if (!enabled) {
+            return null;
+        }
+        Path file = directory.resolve(key + SUFFIX);
+        synchronized (this) {
+            if (entries.get(key) == null) {
+                misses.increment();
+                return null;
+            }
+        }
+        try {
+            DocumentTextExtractor.ExtractedText cached = objectMapper.readValue(file.toFile(), DocumentTextExtractor.ExtractedText.class);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            hits.increment();
+            return cached;
+        } catch (IOException e) {
+            System.out.println("Dropping unreadable text cache entry " + key + ": " + e.getMessage());
+            remove(key);
+            misses.increment();
+            return null;
+        }
+    }
+
+    public void put(String key, DocumentTextExtractor.ExtractedText extracted) {
+        if (!enabled) {
+            return;
+        }
+        Path file = directory.resolve(key + SUFFIX);
+        try {
+            // Write to a temp file first so concurrent readers never see a partial entry
+            Path temp = Files.createTempFile(directory, key, ".tmp");
+            objectMapper.writeValue(temp.toFile(), extracted);
+            long size = Files.size(temp);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            synchronized (this) {
+                Long previous = entries.put(key, size);
+                totalBytes += size - (previous != null ? previous : 0);
+            }
+            evict();
+        } catch (IOException e) {
+            System.out.println("Could not cache extracted text " + key + ": " + e.getMessage());
+        }
+    }
+
+    private void evict() {
+        List<String> evicted = new ArrayList<>();
+        synchronized (this) {
+            Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<String, Long> entry = eldest.next();
+                totalBytes -= entry.getValue();
+                evicted.add(entry.getKey());
+                eldest.remove();
+            }
+        }
+        for (String key : evicted) {
+            deleteQuietly(directory.resolve(key + SUFFIX));
+        }
+    }
+
+    private void remove(String key) {
+        synchronized (this) {
+            Long size = entries.remove(key);
+            if (size != null) {
+                totalBytes -= size;
+            }
+        }
+        deleteQuietly(directory.resolve(key + SUFFIX));
+    }
+
+    private synchronized long currentBytes() {
+        return totalBytes;
+    }
+
+    // Creates the directory and rebuilds the index from existing entries, oldest access first. Files
+    // that this cache did not write are left alone, in case the directory is shared with something else
+    private boolean prepareDirectory() {
+        try {
+            Files.createDirectories(directory);
+            List<Path> files = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+                FileTime staleBefore = FileTime.from(Instant.now().minus(STALE_TEMP_AGE));
+                for (Path file : stream) {
+                    String name = file.getFileName().toString();
+                    if (ENTRY_NAME.matcher(name).matches()) {
+                        files.add(file);
+                    } else if (TEMP_NAME.matcher(name).matches() && lastModified(file).compareTo(staleBefore) < 0) {
+                        // Left behind by a write interrupted by a crash
+                        deleteQuietly(file);
+                    }
+                }
+            }
+            files.sort(Comparator.comparing(this::lastModified));
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                long size = Files.size(file);
+                entries.put(name.substring(0, name.length() - SUFFIX.length()), size);
+                totalBytes += size;
+            }
+            System.out.println("Extracted text cache at " + directory + " holds " + entries.size() + " entries");
+            evict();
+            return true;
+        } catch (IOException e) {
+            System.out.println("Extracted text cache disabled, cannot use " + directory + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private FileTime lastModified(Path file) {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class).lastModifiedTime();
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.out.println("Could not delete " + file + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.studybuddy.service;
+
+/**
+ * Raised when Gemini answers successfully at the HTTP level but the payload carries
+ * no usable text (an error object, an empty body or an unexpected shape).
+ * The message is already suitable for showing to the user.
+ */
+public class GeminiApiException extends RuntimeException {
+
+    public GeminiApiException(String message) {
+        super(message);
+    }
+}
@@ -1,170 +1,279 @@
 package com.studybuddy.service;
 
-import org.springframework.beans.factory.annotation.Value;
+import com.studybuddy.config.DocumentAnalysisProperties;
+import com.studybuddy.dto.LlmChunk;
+import com.studybuddy.dto.LlmRequest;
+import com.studybuddy.entity.DocumentChunk;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.http.HttpHeaders;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.web.multipart.MultipartFile;
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.text.PDFTextStripper;
-import java.io.IOException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
+@EnableConfigurationProperties(DocumentAnalysisProperties.class)
 public class GeminiFlashService {
 
-    @Value("${gemini.api.key}")
-    private String apiKey;
-
-    private final WebClient webClient;
-    private final ObjectMapper objectMapper;
-
-    public GeminiFlashService() {
-        this.webClient = WebClient.builder()
-                .baseUrl("https://generativelanguage.googleapis.com")
-                .defaultHeader(HttpHeaders.CONTENT_TYPE, "application/json")
-                .build();
-        this.objectMapper = new ObjectMapper();
+    private final LlmClient llmClient;
+    private final ResponseCache responseCache;
+    private final RequestCoalescer requestCoalescer;
+    private final LlmResilience llmResilience;
+    private final DocumentTextExtractor textExtractor;
+    private final DocumentAnalysisProperties analysisProperties;
+
+    public GeminiFlashService(LlmClient llmClient,
+                              ResponseCache responseCache,
+                              RequestCoalescer requestCoalescer,
+                              LlmResilience llmResilience,
+                              DocumentTextExtractor textExtractor,
+                              DocumentAnalysisProperties analysisProperties) {
+        this.llmClient = llmClient;
+        this.responseCache = responseCache;
+        this.requestCoalescer = requestCoalescer;
+        this.llmResilience = llmResilience;
+        this.textExtractor = textExtractor;
+        this.analysisProperties = analysisProperties;
     }
 
-    public String generateResponse(String prompt) {
+    public Mono<String> generateResponse(String prompt) {
         return generateResponse(prompt, "general");
     }
 
-    public String generateResponse(String prompt, String queryType) {
+    public Mono<String> generateResponse(String prompt, String queryType) {
         try {
             System.out.println("Processing: " + prompt);
             System.out.println("Query Type: " + queryType);
 
-            if (apiKey == null || apiKey.isEmpty() || apiKey.contains("${")) {
-                return "API Key not configured properly. Please check your application.properties file.";
-            }
-            String enhancedPrompt = enhancePrompt(prompt, queryType);
-
-            String requestBody = String.format("""
-                {
-                    "contents": [{
-                        "parts": [{"text": "%s"}]
-                    }],
-                    "generationConfig": {
-                        "temperature": %f,
-                        "topK": 40,
-                        "topP": 0.95,
-                        "maxOutputTokens": %d
-                    },
-                    "safetySettings": [
-                        {
-                            "category": "HARM_CATEGORY_HARASSMENT",
-                            "threshold": "BLOCK_MEDIUM_AND_ABOVE"
-                        },
-                        {
-                            "category": "HARM_CATEGORY_HATE_SPEECH",
-                            "threshold": "BLOCK_MEDIUM_AND_ABOVE"
-                        },
-                        {
-                            "category": "HARM_CATEGORY_SEXUALLY_EXPLICIT",
-                            "threshold": "BLOCK_MEDIUM_AND_ABOVE"
-                        },
-                        {
-                            "category": "HARM_CATEGORY_DANGEROUS_CONTENT",
-                            "threshold": "BLOCK_MEDIUM_AND_ABOVE"
-                        }
-                    ]
-                }
-                """,
-                    enhancedPrompt.replace("\"", "\\\"").replace("\n", "\\n"),
-                    getTemperature(queryType),
-                    getMaxTokens(queryType)
-            );
-
-            System.out.println("Sending request to Gemini API...");
-
-            String response = webClient.post()
-                    .uri("/v1beta/models/gemini-2.0-flash:generateContent?key=" + apiKey)
-                    .bodyValue(requestBody)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
-
-            System.out.println("Raw Response received");
-            return extractTextFromResponse(response);
+            return generateChatResponse(prompt, queryType)
+                    .onErrorResume(e -> !(e instanceof LlmOverloadedException), e -> {
+                        System.out.println("Error in Gemini API call: " + e.getMessage());
+                        return Mono.just(e instanceof GeminiApiException ? e.getMessage() : getErrorMessage(e, queryType));
+                    });
 
         } catch (Exception e) {
             System.out.println("Error in Gemini API call: " + e.getMessage());
             e.printStackTrace();
-            return getErrorMessage(e, queryType);
+            return Mono.just(getErrorMessage(e, queryType));
         }
     }
 
-    public String generateQuiz(String topic, int questionCount, String difficulty) {
+    /**
+     * Like generateResponse, but failures are propagated instead of being turned into an apology,
+     * so the caller can tell a real answer from an error message.
+     */
+    public Mono<String> generateChatResponse(String prompt, String queryType) {
+        return Mono.defer(() -> generate(buildRequest(enhancePrompt(prompt, queryType), queryType, null)));
+    }
+
+    /**
+     * Asks for a JSON reply conforming to the schema. Unlike generateResponse, failures are
+     * propagated instead of being turned into a chat message, since the caller parses the reply.
+     */
+    public Mono<String> generateStructuredResponse(String prompt, String queryType, Map<String, Object> responseSchema) {
+        return generateStructuredResponse(prompt, queryType, responseSchema, true);
+    }
+
+    /**
+     * As above; with {@code cached} false the reply is always generated fresh and neither read from
+     * nor written to the response cache, for callers that want a different answer on every call.
+     */
+    public Mono<String> generateStructuredResponse(String prompt, String queryType, Map<String, Object> responseSchema,
+                                                   boolean cached) {
+        System.out.println("Structured request - Query Type: " + queryType + (cached ? "" : " (uncached)"));
+        return Mono.defer(() -> {
+            LlmRequest request = buildRequest(enhancePrompt(prompt, queryType), queryType, responseSchema);
+            return cached ? generate(request) : generateUncached(request);
+        });
+    }
+
+    private Mono<String> generate(LlmRequest request) {
+        ResponseCache.Key cacheKey = responseCache.keyFor(request);
+        return responseCache.getOrLoad(cacheKey,
+                () -> requestCoalescer.execute(cacheKey,
+                        () -> llmResilience.execute(request.queryType(), request.prompt().length(),
+                                () -> llmClient.generate(request))));
+    }
+
+    private Mono<String> generateUncached(LlmRequest request) {
+        return llmResilience.execute(request.queryType(), request.prompt().length(), () -> llmClient.generate(request));
+    }
+
+    /**
+     * Like streamResponse, but failures are propagated instead of being streamed as an apology.
+     */
+    public Flux<String> streamChatResponse(String prompt, String queryType) {
+        return Flux.defer(() -> {
+            LlmRequest request = buildRequest(enhancePrompt(prompt, queryType), queryType, null);
+            ResponseCache.Key cacheKey = responseCache.keyFor(request);
+
+            String cached = responseCache.getIfPresent(cacheKey);
+            if (cached != null) {
+                System.out.println("Serving streamed reply from response cache");
+                return Flux.just(cached);
+            }
+
+            StringBuilder fullText = new StringBuilder();
+            AtomicReference<String> finishReason = new AtomicReference<>();
+
+            return llmResilience.executeMany(queryType, () -> llmClient.stream(request))
+                    .doOnNext(chunk -> {
+                        fullText.append(chunk.text());
+                        if (chunk.finishReason() != null) {
+                            finishReason.set(chunk.finishReason());
+                        }
+                    })
+                    .doOnComplete(() -> {
+                        // A reply cut short by the token limit or a safety stop is shown but not reused
+                        if (LlmChunk.STOP.equals(finishReason.get())) {
+                            responseCache.put(cacheKey, fullText.toString().trim());
+                        } else {
+                            System.out.println("Not caching streamed reply, finish reason: " + finishReason.get());
+                        }
+                    })
+                    .map(LlmChunk::text)
+                    .filter(text -> !text.isEmpty());
+        });
+    }
+
+    public Flux<String> streamResponse(String prompt) {
+        return streamResponse(prompt, "general");
+    }
+
+    public Flux<String> streamResponse(String prompt, String queryType) {
         try {
-            String prompt = String.format("""
-                Generate a %d-question multiple choice quiz on the topic: "%s".
-                Difficulty level: %s.
-                
-                Format requirements:
-                - Each question should be clear and concise
-                - Provide exactly 4 options (A, B, C, D) for each question
-                - Mark the correct answer clearly
-                - Questions should test understanding, not just memorization
-                - Make options plausible but distinct
-                
-                Format each question like this:
-                Question: [question text]
-                A) [option A]
-                B) [option B]
-                C) [option C]
-                D) [option D]
-                Correct: [A/B/C/D]
-                
-                Generate exactly %d questions.
-                """, questionCount, topic, difficulty, questionCount);
+            System.out.println("Streaming: " + prompt);
+            System.out.println("Query Type: " + queryType);
 
-            return generateResponse(prompt, "quiz");
+            return streamChatResponse(prompt, queryType)
+                    .onErrorResume(e -> !(e instanceof LlmOverloadedException), e -> {
+                        System.out.println("Error in Gemini streaming call: " + e.getMessage());
+                        return Flux.just(e instanceof GeminiApiException ? e.getMessage() : getErrorMessage(e, queryType));
+                    });
 
         } catch (Exception e) {
-            System.out.println("Error generating quiz: " + e.getMessage());
-            return "Failed to generate quiz. Please try again with a different topic.";
+            System.out.println("Error in Gemini streaming call: " + e.getMessage());
+            e.printStackTrace();
+            return Flux.just(getErrorMessage(e, queryType));
         }
     }
 
-    public String analyzeDocument(MultipartFile file, String instructions) {
-        try {
-            System.out.println("========== ENHANCED DOCUMENT ANALYSIS ==========");
-            System.out.println("File: " + file.getOriginalFilename());
-            System.out.println("Size: " + file.getSize() + " bytes");
-            System.out.println("Type: " + file.getContentType());
-            System.out.println("Instructions: " + instructions);
+    public Mono<String> analyzeDocument(MultipartFile file, String instructions) {
+        System.out.println("========== ENHANCED DOCUMENT ANALYSIS ==========");
+        System.out.println("File: " + file.getOriginalFilename());
+        System.out.println("Size: " + file.getSize() + " bytes");
+        System.out.println("Type: " + file.getContentType());
+        System.out.println("Instructions: " + instructions);
+
+        // Text extraction is blocking I/O and CPU work, so keep it off the event loop
+        return Mono.fromCallable(() -> Optional.ofNullable(extractTextFromFile(file)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(content -> analyzeContent(file, instructions, content.orElse(null)))
+                .doOnNext(result -> System.out.println("Enhanced analysis completed"))
+                // Failures reach the caller, so an apology is never returned (or counted) as an analysis
+                .doOnError(e -> System.out.println("Error in enhanced document analysis: " + e.getMessage()));
+    }
 
-            String fileContent = extractTextFromFile(file);
+    private Mono<String> analyzeContent(MultipartFile file, String instructions, String fileContent) {
+        if (fileContent == null || fileContent.trim().isEmpty() || fileContent.length() <= 50) {
+            System.out.println("Using enhanced fallback analysis (text extraction failed)");
+            return generateChatResponse(buildFallbackAnalysisPrompt(file, instructions), "document");
+        }
 
-            String prompt;
+        System.out.println("Using extracted text content for AI analysis");
+        System.out.println("Content preview: " + fileContent.substring(0, Math.min(200, fileContent.length())) + "...");
 
-            if (fileContent != null && !fileContent.trim().isEmpty() && fileContent.length() > 50) {
-                System.out.println("Using extracted text content for AI analysis");
-                System.out.println("Content preview: " + fileContent.substring(0, Math.min(200, fileContent.length())) + "...");
+        if (fileContent.length() <= analysisProperties.chunkChars()) {
+            System.out.println("Sending enhanced prompt to AI...");
+            return generateChatResponse(buildContentAnalysisPrompt(file, instructions, fileContent), "document");
+        }
+        return analyzeInChunks(file, instructions, fileContent);
+    }
 
-                prompt = buildContentAnalysisPrompt(file, instructions, fileContent);
-            } else {
-                System.out.println("Using enhanced fallback analysis (text extraction failed)");
-                prompt = buildFallbackAnalysisPrompt(file, instructions);
-            }
+    /**
+     * Map-reduce analysis of documents longer than one chunk: every chunk is condensed into notes
+     * in parallel, then a final prompt analyzes the notes against the user's instructions. Map
+     * prompts leave out the instructions and filename, so re-analyzing the same document with
+     * different instructions reuses the cached notes. Failed chunks are skipped; the analysis
+     * only fails when every chunk does.
+     * <p>
+     * The analysis is refused with a 503 before any call when the document bulkhead is already
+     * full, and runs at most as many map prompts at once as the bulkhead allows. A map prompt
+     * shed by the bulkhead because other work took the permits waits and is sent again, so
+     * the analysis slows down under load instead of failing part way through.
+     */
+    private Mono<String> analyzeInChunks(MultipartFile file, String instructions, String fileContent) {
+        List<String> chunks = DocumentChunker.split(fileContent, analysisProperties.chunkChars(), analysisProperties.getOverlapChars());
+        llmResilience.checkCapacity("document");
+        int concurrency = Math.max(1, Math.min(analysisProperties.getMapConcurrency(), llmResilience.concurrencyLimit("document")));
+        System.out.println("Analyzing " + fileContent.length() + " characters in " + chunks.size() + " chunks, " + concurrency + " at a time");
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+
+        return Flux.range(0, chunks.size())
+                .flatMapSequential(chunk -> {
+                    String prompt = enhancePrompt(buildChunkNotesPrompt(chunks.get(chunk), chunk + 1, chunks.size()), "document");
+                    return generate(buildRequest(prompt, "document", null))
+                            .retryWhen(Retry.backoff(analysisProperties.getShedRetries(), analysisProperties.getShedRetryBackoff())
+                                    .maxBackoff(analysisProperties.getShedRetryMaxBackoff())
+                                    .filter(GeminiFlashService::isShedByBulkhead)
+                                    .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                            .onErrorResume(e -> !(e instanceof LlmOverloadedException), e -> {
+                                System.out.println("Document chunk " + (chunk + 1) + "/" + chunks.size() + " failed: " + e.getMessage());
+                                failures.add(e);
+                                return Mono.just("");
+                            });
+                }, concurrency)
+                .collectList()
+                .flatMap(notes -> {
+                    if (failures.size() == chunks.size()) {
+                        return Mono.error(failures.peek());
+                    }
+                    System.out.println("Reducing notes from " + (chunks.size() - failures.size()) + " of " + chunks.size() + " chunks");
+                    return generateChatResponse(buildChunkedAnalysisPrompt(file, instructions, notes), "document");
+                });
+    }
 
-            System.out.println("Sending enhanced prompt to AI...");
-            String analysisResult = generateResponse(prompt, "document");
-            System.out.println("Enhanced analysis completed");
+    // An open circuit means the upstream is down, so only bulkhead rejections are worth waiting out
+    private static boolean isShedByBulkhead(Throwable error) {
+        return error instanceof LlmOverloadedException overloaded && !"circuit".equals(overloaded.getBulkhead());
+    }
 
-            return analysisResult;
+    String buildChunkNotesPrompt(String chunk, int index, int total) {
+        return String.format("""
+            The text below is part %d of %d of a longer document. Condense it into notes for a later review of the whole document.
+            
+            ===== DOCUMENT PART =====
+            %s
+            
+            ===== NOTES REQUEST =====
+            In at most 250 words, list:
+            - Main topics and key points, with important facts, definitions and figures
+            - How this part is organized and how it connects to the rest of the document
+            - Errors, unclear passages or gaps worth pointing out, quoting the relevant wording
+            
+            Write only the notes, without introduction or conclusion.
+            """, index, total, chunk);
+    }
 
-        } catch (Exception e) {
-            System.out.println("Error in enhanced document analysis: " + e.getMessage());
-            e.printStackTrace();
-            return "I apologize, but I encountered an error while analyzing your document. Please try again with a different file or contact support if the issue persists. Error: " + e.getMessage();
+    String buildChunkedAnalysisPrompt(MultipartFile file, String instructions, List<String> notes) {
+        StringBuilder sections = new StringBuilder();
+        for (int i = 0; i < notes.size(); i++) {
+            sections.append("--- Part ").append(i + 1).append(" of ").append(notes.size()).append(" ---\n");
+            sections.append(notes.get(i).isBlank() ? "[This part could not be analyzed]" : notes.get(i).trim()).append("\n\n");
         }
+        String content = "The document is too long to include in full. These are notes on each of its parts, in order:\n\n" + sections;
+        return buildContentAnalysisPrompt(file, instructions, content);
     }
 
-    private String buildContentAnalysisPrompt(MultipartFile file, String instructions, String fileContent) {
+    String buildContentAnalysisPrompt(MultipartFile file, String instructions, String fileContent) {
         return String.format("""
             You are an expert document analyzer. Please analyze this document and provide detailed feedback based on the user's specific instructions.
             
@@ -208,7 +317,7 @@ public class GeminiFlashService {
                 file.getOriginalFilename(),
                 file.getContentType(),
                 file.getSize(),
-                fileContent.length() > 12000 ? fileContent.substring(0, 12000) + "\n\n[Content truncated for length...]" : fileContent,
+                fileContent,
                 instructions != null ? instructions : "Provide general analysis and feedback"
         );
     }
@@ -262,7 +371,35 @@ public class GeminiFlashService {
         );
     }
 
-    public String summarizeText(String text, String summaryType) {
+    /**
+     * Answers a follow-up question from retrieved passages of the user's documents instead of
+     * resending the whole document.
+     */
+    public Mono<String> answerFromDocuments(String question, List<DocumentChunk> passages) {
+        System.out.println("Answering document question from " + passages.size() + " passages");
+        return generateResponse(buildDocumentQuestionPrompt(question, passages), "document");
+    }
+
+    String buildDocumentQuestionPrompt(String question, List<DocumentChunk> passages) {
+        StringBuilder context = new StringBuilder();
+        for (DocumentChunk passage : passages) {
+            context.append("--- ").append(passage.getFileName())
+                    .append(", passage ").append(passage.getChunkIndex() + 1).append(" ---\n")
+                    .append(passage.getText().trim()).append("\n\n");
+        }
+        return String.format("""
+            Answer the student's question using the excerpts from their uploaded documents below.
+            
+            ===== DOCUMENT EXCERPTS =====
+            %s
+            ===== QUESTION =====
+            "%s"
+            
+            Base the answer on the excerpts and mention which document it comes from. If the excerpts do not contain the answer, say so and then give a brief general answer, clearly marked as not coming from the documents.
+            """, context, question);
+    }
+
+    public Mono<String> summarizeText(String text, String summaryType) {
         try {
             String lengthInstruction = "";
             switch (summaryType) {
@@ -295,7 +432,7 @@ public class GeminiFlashService {
 
         } catch (Exception e) {
             System.out.println("Error summarizing text: " + e.getMessage());
-            return "Failed to generate summary. Please try again.";
+            return Mono.just("Failed to generate summary. Please try again.");
         }
     }
 
@@ -303,38 +440,19 @@ public class GeminiFlashService {
         try {
             System.out.println("Attempting text extraction for: " + file.getContentType());
 
-            if (file.getContentType().equals("text/plain")) {
-                String text = new String(file.getBytes());
-                System.out.println("Text file extracted: " + text.length() + " characters");
-                return text;
-            }
-
-            if (file.getContentType().equals("application/pdf")) {
-                try {
-                    PDDocument document = PDDocument.load(file.getInputStream());
-                    PDFTextStripper stripper = new PDFTextStripper();
-                    String text = stripper.getText(document);
-                    document.close();
-
-                    System.out.println("PDF text extracted: " + text.length() + " characters");
-                    if (text.length() > 0) {
-                        System.out.println("Sample content: " + text.substring(0, Math.min(200, text.length())) + "...");
-                    }
-
-                    return text.trim().isEmpty() ? null : text;
-                } catch (Exception e) {
-                    System.out.println("PDF extraction error: " + e.getMessage());
-                    return null;
-                }
+            DocumentTextExtractor.ExtractedText extracted = textExtractor.extract(file);
+            if (extracted == null) {
+                System.out.println("Unsupported file type for text extraction: " + file.getContentType());
+                return null;
             }
 
-            if (file.getContentType().startsWith("image/")) {
-                System.out.println("Image file - text extraction not supported yet");
+            String text = extracted.text();
+            System.out.println("Extracted " + text.length() + " characters from " + extracted.pagesRead()
+                    + " of " + extracted.totalPages() + " pages" + (extracted.truncated() ? " (truncated)" : ""));
+            if (text.trim().isEmpty()) {
                 return null;
             }
-
-            System.out.println("Unsupported file type for text extraction: " + file.getContentType());
-            return null;
+            return extracted.truncated() ? text + "\n\n[Content truncated for length...]" : text;
 
         } catch (Exception e) {
             System.out.println("Text extraction failed: " + e.getMessage());
@@ -342,7 +460,11 @@ public class GeminiFlashService {
         }
     }
 
-    private String enhancePrompt(String prompt, String queryType) {
+    private LlmRequest buildRequest(String enhancedPrompt, String queryType, Map<String, Object> responseSchema) {
+        return new LlmRequest(enhancedPrompt, queryType, getTemperature(queryType), getMaxTokens(queryType), responseSchema);
+    }
+
+    String enhancePrompt(String prompt, String queryType) {
         switch (queryType) {
             case "code":
                 return "You are an expert programming assistant. Provide clear, concise code help with explanations. " +
@@ -395,68 +517,7 @@ public class GeminiFlashService {
         }
     }
 
-    private String extractTextFromResponse(String jsonResponse) {
-        try {
-            if (jsonResponse == null || jsonResponse.trim().isEmpty()) {
-                return "Empty response from API. Please try again.";
-            }
-
-            JsonNode rootNode = objectMapper.readTree(jsonResponse);
-
-            JsonNode candidates = rootNode.path("candidates");
-            if (candidates.isArray() && candidates.size() > 0) {
-                JsonNode content = candidates.get(0).path("content");
-                JsonNode parts = content.path("parts");
-                if (parts.isArray() && parts.size() > 0) {
-                    String text = parts.get(0).path("text").asText();
-                    return text.trim();
-                }
-            }
-
-            if (rootNode.has("error")) {
-                String errorMsg = rootNode.path("error").path("message").asText();
-                return "API Error: " + errorMsg;
-            }
-
-            return "Could not extract text from response. Raw response: " + jsonResponse;
-
-        } catch (Exception e) {
-            System.out.println("Error parsing response: " + e.getMessage());
-
-            return extractTextSimple(jsonResponse);
-        }
-    }
-
-    private String extractTextSimple(String jsonResponse) {
-        try {
-            // Simple text extraction as fallback
-            int textIndex = jsonResponse.indexOf("\"text\"");
-            if (textIndex == -1) {
-                return "No 'text' field found in response. Please check the API response format.";
-            }
-
-            int colonIndex = jsonResponse.indexOf(":", textIndex);
-            int firstQuote = jsonResponse.indexOf("\"", colonIndex);
-            int secondQuote = jsonResponse.indexOf("\"", firstQuote + 1);
-
-            if (firstQuote == -1 || secondQuote == -1) {
-                return "Could not find text content in response.";
-            }
-
-            String extractedText = jsonResponse.substring(firstQuote + 1, secondQuote);
-
-            return extractedText
-                    .replace("\\n", "\n")
-                    .replace("\\\"", "\"")
-                    .replace("\\t", "\t")
-                    .trim();
-
-        } catch (Exception e) {
-            return "Error parsing response: " + e.getMessage() + "\n\nRaw response for debugging:\n" + jsonResponse;
-        }
-    }
-
-    private String getErrorMessage(Exception e, String queryType) {
+    private String getErrorMessage(Throwable e, String queryType) {
         String baseError = "I apologize, but I'm having trouble connecting to the AI service. ";
 
         switch (queryType) {
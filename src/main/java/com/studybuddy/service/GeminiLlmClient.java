@@ -0,0 +1,153 @@
+package com.studybuddy.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.studybuddy.config.GeminiHttpProperties;
+import com.studybuddy.dto.GeminiRequest;
+import com.studybuddy.dto.GeminiResponse;
+import com.studybuddy.dto.LlmChunk;
+import com.studybuddy.dto.LlmRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ClientHttpRequest;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClientRequest;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@link LlmClient} backed by the Gemini REST API (generateContent / streamGenerateContent).
+ */
+@Component
+@Profile("!stub")
+public class GeminiLlmClient implements LlmClient {
+
+    @Value("${gemini.api.key}")
+    private String apiKey;
+
+    @Value("${gemini.model:gemini-2.0-flash}")
+    private String model;
+
+    private final WebClient webClient;
+    private final GeminiHttpProperties httpProperties;
+    private final ObjectMapper objectMapper;
+    private final GeminiRequestWriter requestWriter;
+
+    public GeminiLlmClient(WebClient geminiWebClient, GeminiHttpProperties httpProperties) {
+        this.webClient = geminiWebClient;
+        this.httpProperties = httpProperties;
+        this.objectMapper = new ObjectMapper();
+        this.requestWriter = new GeminiRequestWriter(objectMapper);
+    }
+
+    @Override
+    public Mono<String> generate(LlmRequest request) {
+        if (!isApiKeyConfigured()) {
+            return Mono.error(new GeminiApiException("API Key not configured properly. Please check your application.properties file."));
+        }
+
+        System.out.println("Sending request to Gemini API...");
+
+        return webClient.post()
+                .uri("/v1beta/models/{model}:generateContent?key={key}", model, apiKey)
+                .httpRequest(httpRequest -> applyResponseTimeout(httpRequest, request.queryType()))
+                .body(requestWriter.inserter(toGeminiRequest(request)))
+                .retrieve()
+                .bodyToFlux(DataBuffer.class)
+                .collect(() -> new GeminiResponseParser(objectMapper.getFactory()), GeminiResponseParser::feed)
+                .map(parser -> {
+                    System.out.println("Raw Response received");
+                    return extractTextFromResponse(parser.finish());
+                });
+    }
+
+    @Override
+    public Flux<LlmChunk> stream(LlmRequest request) {
+        if (!isApiKeyConfigured()) {
+            return Flux.error(new GeminiApiException("API Key not configured properly. Please check your application.properties file."));
+        }
+
+        System.out.println("Opening streaming request to Gemini API...");
+
+        return webClient.post()
+                .uri("/v1beta/models/{model}:streamGenerateContent?alt=sse&key={key}", model, apiKey)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .httpRequest(httpRequest -> applyResponseTimeout(httpRequest, request.queryType()))
+                .body(requestWriter.inserter(toGeminiRequest(request)))
+                .retrieve()
+                .bodyToFlux(new ParameterizedTypeReference<ServerSentEvent<String>>() {})
+                .mapNotNull(ServerSentEvent::data)
+                .map(this::extractChunk)
+                .filter(chunk -> !chunk.text().isEmpty() || chunk.finishReason() != null);
+    }
+
+    private boolean isApiKeyConfigured() {
+        return apiKey != null && !apiKey.isEmpty() && !apiKey.contains("${");
+    }
+
+    private GeminiRequest toGeminiRequest(LlmRequest request) {
+        return GeminiRequest.forPrompt(request.prompt(), request.temperature(), request.maxOutputTokens(), request.responseSchema());
+    }
+
+    private void applyResponseTimeout(ClientHttpRequest request, String queryType) {
+        HttpClientRequest nativeRequest = request.getNativeRequest();
+        nativeRequest.responseTimeout(httpProperties.responseTimeoutFor(queryType));
+    }
+
+    private String extractTextFromResponse(GeminiResponse response) {
+        if (response.usage() != null) {
+            System.out.println("Tokens used - prompt: " + response.usage().promptTokenCount()
+                    + ", response: " + response.usage().candidatesTokenCount()
+                    + ", finish reason: " + response.finishReason());
+        }
+
+        if (response.empty()) {
+            throw new GeminiApiException("Empty response from API. Please try again.");
+        }
+
+        if (response.hasText()) {
+            return response.text().trim();
+        }
+
+        if (response.errorMessage() != null) {
+            throw new GeminiApiException("API Error: " + response.errorMessage());
+        }
+
+        if (response.blockReason() != null) {
+            throw new GeminiApiException(blockedMessage(response.blockReason()));
+        }
+
+        throw new GeminiApiException("Could not extract text from response. Finish reason: " + response.finishReason());
+    }
+
+    // A chunk that cannot be read, or that carries an error or a block, fails the stream rather
+    // than being skipped, so a reply with missing pieces never looks complete
+    private LlmChunk extractChunk(String jsonChunk) {
+        GeminiResponse chunk;
+        try {
+            chunk = GeminiResponseParser.parse(objectMapper.getFactory(), jsonChunk.getBytes(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            System.out.println("Error parsing stream chunk: " + e.getMessage());
+            throw new GeminiApiException("Received an unreadable part of the reply. Please try again.");
+        }
+        if (chunk.errorMessage() != null) {
+            throw new GeminiApiException("API Error: " + chunk.errorMessage());
+        }
+        if (chunk.blockReason() != null) {
+            throw new GeminiApiException(blockedMessage(chunk.blockReason()));
+        }
+        // Streamed chunks are concatenated as-is, so unlike extractTextFromResponse nothing is trimmed
+        return new LlmChunk(chunk.hasText() ? chunk.text() : "", chunk.finishReason());
+    }
+
+    private String blockedMessage(String blockReason) {
+        return "Your request was blocked by the AI service's content filters (" + blockReason
+                + "). Please rephrase it and try again.";
+    }
+}
@@ -0,0 +1,61 @@
+package com.studybuddy.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.studybuddy.dto.GeminiRequest;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.ReactiveHttpOutputMessage;
+import org.springframework.web.reactive.function.BodyInserter;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Serializes {@link GeminiRequest}s with Jackson's streaming generator straight into the
+ * outgoing request buffer, so the prompt is never copied into an intermediate JSON String.
+ * Jackson also takes care of escaping quotes, backslashes and control characters.
+ */
+public class GeminiRequestWriter {
+
+    // Room for the generation config and safety settings around the prompt text
+    private static final int ENVELOPE_SIZE = 1024;
+
+    private final ObjectMapper objectMapper;
+
+    public GeminiRequestWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public BodyInserter<GeminiRequest, ReactiveHttpOutputMessage> inserter(GeminiRequest request) {
+        return (outputMessage, context) -> {
+            DataBuffer buffer = outputMessage.bufferFactory().allocateBuffer(estimateSize(request));
+            try (OutputStream out = buffer.asOutputStream()) {
+                writeTo(request, out);
+            } catch (IOException | RuntimeException e) {
+                // Jackson reports some serialization failures unchecked; the buffer must go back either way
+                DataBufferUtils.release(buffer);
+                return Mono.error(e);
+            }
+            outputMessage.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            outputMessage.getHeaders().setContentLength(buffer.readableByteCount());
+            return outputMessage.writeWith(Mono.just(buffer));
+        };
+    }
+
+    public void writeTo(GeminiRequest request, OutputStream out) throws IOException {
+        objectMapper.writeValue(out, request);
+    }
+
+    private int estimateSize(GeminiRequest request) {
+        int textLength = 0;
+        for (GeminiRequest.Content content : request.contents()) {
+            for (GeminiRequest.Part part : content.parts()) {
+                textLength += part.text().length();
+            }
+        }
+        // The buffer grows if multi-byte characters or escapes push the body past the estimate
+        return textLength + ENVELOPE_SIZE;
+    }
+}
@@ -0,0 +1,150 @@
+package com.studybuddy.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import com.studybuddy.dto.GeminiResponse;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Incremental parser for Gemini replies built on Jackson's non-blocking parser.
+ * Buffers are fed as they arrive from the network and released right away; only the
+ * candidate text, finish reason, block reason, usage metadata and error message are kept, so the raw
+ * body is never materialized as a String or a tree. Not thread-safe: one instance per reply.
+ */
+public class GeminiResponseParser {
+
+    private static final String PARTS_PATH = "/candidates/0/content/parts/";
+
+    private final JsonParser parser;
+    private final ByteBufferFeeder feeder;
+
+    private StringBuilder text;
+    private String finishReason;
+    private int promptTokenCount;
+    private int candidatesTokenCount;
+    private int totalTokenCount;
+    private boolean hasUsage;
+    private String errorMessage;
+    private String blockReason;
+    private boolean sawToken;
+
+    public GeminiResponseParser(JsonFactory jsonFactory) {
+        try {
+            this.parser = jsonFactory.createNonBlockingByteBufferParser();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.feeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    public static GeminiResponse parse(JsonFactory jsonFactory, byte[] json) {
+        GeminiResponseParser responseParser = new GeminiResponseParser(jsonFactory);
+        responseParser.feed(ByteBuffer.wrap(json));
+        return responseParser.finish();
+    }
+
+    /**
+     * Consumes and releases the buffer.
+     */
+    public void feed(DataBuffer buffer) {
+        try (DataBuffer.ByteBufferIterator byteBuffers = buffer.readableByteBuffers()) {
+            while (byteBuffers.hasNext()) {
+                feed(byteBuffers.next());
+            }
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    public void feed(ByteBuffer byteBuffer) {
+        try {
+            feeder.feedInput(byteBuffer);
+            drain();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public GeminiResponse finish() {
+        try {
+            feeder.endOfInput();
+            drain();
+            parser.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        GeminiResponse.Usage usage = hasUsage
+                ? new GeminiResponse.Usage(promptTokenCount, candidatesTokenCount, totalTokenCount)
+                : null;
+        return new GeminiResponse(text != null ? text.toString() : null, finishReason, usage, errorMessage, blockReason, !sawToken);
+    }
+
+    // Pulls every token available so far; the feeder only accepts new input once this returns
+    private void drain() throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            sawToken = true;
+            if (token == JsonToken.VALUE_STRING || token.isNumeric()) {
+                handleValue(token);
+            }
+        }
+    }
+
+    private void handleValue(JsonToken token) throws IOException {
+        String name = parser.currentName();
+        if (name == null) {
+            return;
+        }
+        switch (name) {
+            case "text" -> {
+                String path = currentPath();
+                if (token == JsonToken.VALUE_STRING && path.startsWith(PARTS_PATH)
+                        && path.indexOf('/', PARTS_PATH.length()) == path.length() - "/text".length()) {
+                    if (text == null) {
+                        text = new StringBuilder();
+                    }
+                    text.append(parser.getText());
+                }
+            }
+            case "finishReason" -> {
+                if ("/candidates/0/finishReason".equals(currentPath())) {
+                    finishReason = parser.getText();
+                }
+            }
+            case "blockReason" -> {
+                if ("/promptFeedback/blockReason".equals(currentPath())) {
+                    blockReason = parser.getText();
+                }
+            }
+            case "promptTokenCount", "candidatesTokenCount", "totalTokenCount" -> {
+                if (token.isNumeric() && ("/usageMetadata/" + name).equals(currentPath())) {
+                    hasUsage = true;
+                    int value = parser.getIntValue();
+                    switch (name) {
+                        case "promptTokenCount" -> promptTokenCount = value;
+                        case "candidatesTokenCount" -> candidatesTokenCount = value;
+                        default -> totalTokenCount = value;
+                    }
+                }
+            }
+            case "message" -> {
+                if ("/error/message".equals(currentPath())) {
+                    errorMessage = parser.getText();
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    private String currentPath() {
+        return parser.getParsingContext().pathAsPointer().toString();
+    }
+}
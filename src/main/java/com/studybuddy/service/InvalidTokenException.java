@@ -0,0 +1,19 @@
+package com.studybuddy.service;
+
+/**
+ * Raised when a session token is malformed, badly signed, expired or of the wrong type.
+ * The reason is a short metric tag; the message is safe to show to the client.
+ */
+public class InvalidTokenException extends RuntimeException {
+
+    private final String reason;
+
+    public InvalidTokenException(String reason) {
+        super("Your session has expired. Please sign in again.");
+        this.reason = reason;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+}
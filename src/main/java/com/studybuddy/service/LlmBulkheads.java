@@ -0,0 +1,194 @@
+package com.studybuddy.service;
+
+import com.studybuddy.config.LlmConcurrencyProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.handler.timeout.ReadTimeoutException;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Separate adaptive concurrency limits for chat, quiz and document traffic to the LLM,
+ * so heavy document analysis cannot starve quick chats. A full bulkhead fails fast with
+ * {@link LlmOverloadedException} instead of queueing.
+ */
+@Component
+@EnableConfigurationProperties(LlmConcurrencyProperties.class)
+public class LlmBulkheads {
+
+    private final Map<String, Bulkhead> bulkheads = new HashMap<>();
+    private final LlmConcurrencyProperties properties;
+
+    public LlmBulkheads(LlmConcurrencyProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        properties.getBulkheads().forEach((name, settings) -> {
+            AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                    settings.getInitialLimit(),
+                    settings.getMinLimit(),
+                    settings.getMaxLimit(),
+                    settings.getLatencyThreshold().toNanos(),
+                    properties.getBackoffRatio());
+            Gauge.builder("llm.bulkhead.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .tag("bulkhead", name)
+                    .register(meterRegistry);
+            Gauge.builder("llm.bulkhead.in.flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                    .tag("bulkhead", name)
+                    .register(meterRegistry);
+            Counter rejected = Counter.builder("llm.bulkhead.rejected")
+                    .tag("bulkhead", name)
+                    .register(meterRegistry);
+            bulkheads.put(name, new Bulkhead(name, limiter, rejected));
+        });
+    }
+
+    public static String bulkheadFor(String queryType) {
+        if (queryType == null) {
+            return "chat";
+        }
+        switch (queryType) {
+            case "quiz":
+                return "quiz";
+            case "document":
+            case "summary":
+                return "document";
+            default:
+                return "chat";
+        }
+    }
+
+    public <T> Mono<T> execute(String queryType, Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            Bulkhead bulkhead = acquire(queryType);
+            Permit permit = new Permit(bulkhead.limiter());
+            // Deferred so a supplier that throws still terminates and gives the permit back. The
+            // permit is returned before the result reaches the caller, so a follow-up call is not shed
+            return Mono.defer(call)
+                    .doOnError(permit::failed)
+                    .doOnTerminate(permit::release)
+                    .doOnCancel(permit::cancel);
+        });
+    }
+
+    public <T> Flux<T> executeMany(String queryType, Supplier<Flux<T>> call) {
+        return Flux.defer(() -> {
+            Bulkhead bulkhead = acquire(queryType);
+            Permit permit = new Permit(bulkhead.limiter());
+            // The permit is held for the whole stream, but only the wait for the first item says
+            // anything about upstream load; a long answer would otherwise read as a slow call
+            return Flux.defer(call)
+                    .doOnNext(item -> permit.firstItem())
+                    .doOnError(permit::failed)
+                    .doOnTerminate(permit::release)
+                    .doOnCancel(permit::cancel);
+        });
+    }
+
+    /**
+     * Current concurrency limit of the bulkhead serving the query type.
+     */
+    public int getLimit(String queryType) {
+        return bulkhead(queryType).limiter().getLimit();
+    }
+
+    /**
+     * Fails with {@link LlmOverloadedException} when the bulkhead has no free permit, without taking one.
+     * For multi-call work that should be refused up front rather than shed part way through.
+     */
+    public void checkCapacity(String queryType) {
+        Bulkhead bulkhead = bulkhead(queryType);
+        if (bulkhead.limiter().getInFlight() >= bulkhead.limiter().getLimit()) {
+            reject(bulkhead);
+        }
+    }
+
+    private Bulkhead acquire(String queryType) {
+        Bulkhead bulkhead = bulkhead(queryType);
+        if (!bulkhead.limiter().tryAcquire()) {
+            reject(bulkhead);
+        }
+        return bulkhead;
+    }
+
+    private Bulkhead bulkhead(String queryType) {
+        Bulkhead bulkhead = bulkheads.get(bulkheadFor(queryType));
+        if (bulkhead == null) {
+            throw new IllegalStateException("No bulkhead configured for query type: " + queryType);
+        }
+        return bulkhead;
+    }
+
+    private void reject(Bulkhead bulkhead) {
+        bulkhead.rejected().increment();
+        System.out.println("Bulkhead '" + bulkhead.name() + "' full at limit " + bulkhead.limiter().getLimit());
+        throw new LlmOverloadedException(bulkhead.name(), properties.getRetryAfter());
+    }
+
+    // Throttling and timeouts mean the upstream is saturated; other errors say nothing about capacity
+    private static boolean isDropped(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof WebClientResponseException responseException) {
+                int status = responseException.getStatusCode().value();
+                return status == HttpStatus.TOO_MANY_REQUESTS.value() || status == HttpStatus.SERVICE_UNAVAILABLE.value();
+            }
+            if (cause instanceof TimeoutException || cause instanceof ReadTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Bulkhead(String name, AdaptiveConcurrencyLimiter limiter, Counter rejected) {
+    }
+
+    private static final class Permit {
+
+        private final AdaptiveConcurrencyLimiter limiter;
+        private final long startNanos = System.nanoTime();
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+        private final AtomicLong firstItemNanos = new AtomicLong(-1);
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(AdaptiveConcurrencyLimiter limiter) {
+            this.limiter = limiter;
+        }
+
+        void firstItem() {
+            if (firstItemNanos.get() < 0) {
+                firstItemNanos.compareAndSet(-1, System.nanoTime() - startNanos);
+            }
+        }
+
+        void failed(Throwable throwable) {
+            error.set(throwable);
+        }
+
+        void cancel() {
+            if (released.compareAndSet(false, true)) {
+                limiter.releaseWithoutSample();
+            }
+        }
+
+        void release() {
+            if (!released.compareAndSet(false, true)) {
+                return;
+            }
+            Throwable throwable = error.get();
+            long firstItem = firstItemNanos.get();
+            long latency = firstItem >= 0 ? firstItem : System.nanoTime() - startNanos;
+            limiter.release(latency, throwable != null && isDropped(throwable));
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.studybuddy.service;
+
+import com.studybuddy.dto.LlmChunk;
+import com.studybuddy.dto.LlmRequest;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * A text generation backend. {@link GeminiLlmClient} talks to the Gemini API;
+ * {@link StubLlmClient} (profile {@code stub}) answers locally for load tests and benchmarks.
+ * Caching, coalescing and resilience are applied by {@link GeminiFlashService}, not here.
+ */
+public interface LlmClient {
+
+    /**
+     * Emits the full reply text, or fails with {@link GeminiApiException} when the
+     * provider answered without usable text.
+     */
+    Mono<String> generate(LlmRequest request);
+
+    /**
+     * Emits the reply as partial text chunks in order; chunks are not trimmed. The last chunk
+     * carries the finish reason. Fails with {@link GeminiApiException} when the provider sends
+     * an error or blocks the prompt part way through.
+     */
+    Flux<LlmChunk> stream(LlmRequest request);
+}
@@ -0,0 +1,31 @@
+package com.studybuddy.service;
+
+import java.time.Duration;
+
+/**
+ * Raised when an upstream LLM call is rejected locally, because its bulkhead is full or
+ * the circuit breaker is open. Controllers turn it into a 503 with a Retry-After header.
+ */
+public class LlmOverloadedException extends RuntimeException {
+
+    private final String bulkhead;
+    private final Duration retryAfter;
+
+    public LlmOverloadedException(String bulkhead, Duration retryAfter) {
+        this(bulkhead, retryAfter, "The AI service is busy (" + bulkhead + "). Please try again in " + retryAfter.toSeconds() + " seconds.");
+    }
+
+    public LlmOverloadedException(String bulkhead, Duration retryAfter, String message) {
+        super(message);
+        this.bulkhead = bulkhead;
+        this.retryAfter = retryAfter;
+    }
+
+    public String getBulkhead() {
+        return bulkhead;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,251 @@
+package com.studybuddy.service;
+
+import com.studybuddy.config.LlmResilienceProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.netty.handler.timeout.ReadTimeoutException;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Wraps upstream LLM calls with, from the outside in: jittered exponential retry of
+ * retryable failures, a circuit breaker that fails fast while the upstream is down,
+ * the per-queryType bulkhead, and optional hedging of short chat prompts.
+ */
+@Component
+@EnableConfigurationProperties(LlmResilienceProperties.class)
+public class LlmResilience {
+
+    private final LlmResilienceProperties properties;
+    private final LlmBulkheads bulkheads;
+    private final CircuitBreaker circuitBreaker;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> latencyTimers = new HashMap<>();
+    private final Counter retries;
+    private final Counter circuitRejected;
+    private final Counter hedgesSent;
+    private final Counter hedgesWon;
+
+    public LlmResilience(LlmResilienceProperties properties, LlmBulkheads bulkheads, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.bulkheads = bulkheads;
+        this.meterRegistry = meterRegistry;
+
+        LlmResilienceProperties.CircuitBreaker breaker = properties.getCircuitBreaker();
+        this.circuitBreaker = new CircuitBreaker(
+                breaker.getWindowSize(),
+                breaker.getMinimumCalls(),
+                breaker.getFailureRateThreshold(),
+                breaker.getOpenDuration(),
+                breaker.getHalfOpenTrialCalls());
+
+        this.retries = Counter.builder("llm.retry.attempts").register(meterRegistry);
+        this.circuitRejected = Counter.builder("llm.circuit.rejected").register(meterRegistry);
+        this.hedgesSent = Counter.builder("llm.hedge.sent").register(meterRegistry);
+        this.hedgesWon = Counter.builder("llm.hedge.won").register(meterRegistry);
+        Gauge.builder("llm.circuit.state", circuitBreaker, cb -> cb.getState().ordinal())
+                .description("0 = closed, 1 = open, 2 = half-open")
+                .register(meterRegistry);
+    }
+
+    public <T> Mono<T> execute(String queryType, int promptLength, Supplier<Mono<T>> call) {
+        Mono<T> attempt = Mono.defer(() -> guarded(queryType, () -> hedged(queryType, promptLength, call)));
+        LlmResilienceProperties.Retry retry = properties.getRetry();
+        if (!retry.isEnabled() || retry.getMaxAttempts() <= 1) {
+            return attempt;
+        }
+        return attempt.retryWhen(Retry.backoff(retry.getMaxAttempts() - 1, retry.getInitialBackoff())
+                .maxBackoff(retry.getMaxBackoff())
+                .jitter(retry.getJitter())
+                .filter(this::isRetryable)
+                .doBeforeRetry(signal -> {
+                    retries.increment();
+                    System.out.println("Retrying LLM call (attempt " + (signal.totalRetries() + 2) + "): " + signal.failure().getMessage());
+                })
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
+    /**
+     * Streams get the circuit breaker and bulkhead but no retry or hedging,
+     * since chunks may already have reached the client when a failure happens.
+     */
+    public <T> Flux<T> executeMany(String queryType, Supplier<Flux<T>> call) {
+        return Flux.defer(() -> {
+            CircuitBreaker.Permission permission = acquireCircuitPermission();
+            AtomicBoolean failed = new AtomicBoolean();
+            return bulkheads.executeMany(queryType, call)
+                    .doOnError(e -> {
+                        failed.set(true);
+                        recordOutcome(permission, e);
+                    })
+                    .doFinally(signal -> {
+                        if (signal == SignalType.ON_COMPLETE) {
+                            recordSuccess(permission);
+                        } else if (!failed.get()) {
+                            releasePermission(permission);
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Current concurrency limit of the bulkhead serving the query type.
+     */
+    public int concurrencyLimit(String queryType) {
+        return bulkheads.getLimit(queryType);
+    }
+
+    /**
+     * Refuses work up front when the circuit is open or the bulkhead is full, so multi-call work
+     * such as chunked document analysis is not shed part way through. Takes no permit.
+     */
+    public void checkCapacity(String queryType) {
+        if (properties.getCircuitBreaker().isEnabled() && circuitBreaker.getState() == CircuitBreaker.State.OPEN
+                && !circuitBreaker.remainingOpenTime().isZero()) {
+            throw circuitOpen();
+        }
+        bulkheads.checkCapacity(queryType);
+    }
+
+    private <T> Mono<T> guarded(String queryType, Supplier<Mono<T>> call) {
+        CircuitBreaker.Permission permission = acquireCircuitPermission();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        AtomicBoolean done = new AtomicBoolean();
+        return call.get()
+                .doOnSuccess(value -> {
+                    done.set(true);
+                    recordSuccess(permission);
+                    sample.stop(latencyTimer(queryType));
+                })
+                .doOnError(e -> {
+                    done.set(true);
+                    recordOutcome(permission, e);
+                })
+                .doFinally(signal -> {
+                    if (!done.get()) {
+                        releasePermission(permission);
+                    }
+                });
+    }
+
+    private <T> Mono<T> hedged(String queryType, int promptLength, Supplier<Mono<T>> call) {
+        LlmResilienceProperties.Hedge hedge = properties.getHedge();
+        if (!hedge.isEnabled() || !hedge.getQueryTypes().contains(queryType) || promptLength > hedge.getMaxPromptChars()) {
+            return bulkheads.execute(queryType, call);
+        }
+
+        Mono<T> primary = bulkheads.execute(queryType, call);
+        Mono<T> secondary = Mono.delay(hedgeDelay(queryType))
+                .then(Mono.defer(() -> {
+                    hedgesSent.increment();
+                    return bulkheads.execute(queryType, call);
+                }))
+                .doOnNext(value -> hedgesWon.increment())
+                .onErrorResume(e -> Mono.never());
+
+        // The first signal wins and the other call is cancelled. A failing hedge never signals,
+        // so errors always come from the primary and reach the retry without waiting for the hedge.
+        return Mono.firstWithSignal(primary, secondary);
+    }
+
+    private Duration hedgeDelay(String queryType) {
+        LlmResilienceProperties.Hedge hedge = properties.getHedge();
+        Timer timer = latencyTimer(queryType);
+        if (timer.count() < hedge.getMinSamples()) {
+            return hedge.getFallbackDelay();
+        }
+        for (ValueAtPercentile percentile : timer.takeSnapshot().percentileValues()) {
+            if (percentile.percentile() == hedge.getDelayPercentile()) {
+                long nanos = (long) percentile.value(TimeUnit.NANOSECONDS);
+                return Duration.ofNanos(Math.max(nanos, hedge.getMinDelay().toNanos()));
+            }
+        }
+        return hedge.getFallbackDelay();
+    }
+
+    private Timer latencyTimer(String queryType) {
+        synchronized (latencyTimers) {
+            return latencyTimers.computeIfAbsent(queryType, type -> Timer.builder("llm.upstream.latency")
+                    .tag("queryType", type)
+                    .publishPercentiles(properties.getHedge().getDelayPercentile())
+                    .register(meterRegistry));
+        }
+    }
+
+    // Returns null when the breaker is disabled; outcomes of such calls are not recorded at all
+    private CircuitBreaker.Permission acquireCircuitPermission() {
+        if (!properties.getCircuitBreaker().isEnabled()) {
+            return null;
+        }
+        CircuitBreaker.Permission permission = circuitBreaker.tryAcquirePermission();
+        if (permission == null) {
+            throw circuitOpen();
+        }
+        return permission;
+    }
+
+    private LlmOverloadedException circuitOpen() {
+        circuitRejected.increment();
+        Duration retryAfter = circuitBreaker.remainingOpenTime();
+        if (retryAfter.isZero()) {
+            retryAfter = Duration.ofSeconds(1);
+        }
+        return new LlmOverloadedException("circuit", retryAfter,
+                "The AI service is temporarily unavailable. Please try again in " + Math.max(1, retryAfter.toSeconds()) + " seconds.");
+    }
+
+    private void recordSuccess(CircuitBreaker.Permission permission) {
+        if (permission != null) {
+            circuitBreaker.onSuccess(permission);
+        }
+    }
+
+    private void releasePermission(CircuitBreaker.Permission permission) {
+        if (permission != null) {
+            circuitBreaker.release(permission);
+        }
+    }
+
+    // Only upstream faults count against the circuit; local rejections and bad requests do not
+    private void recordOutcome(CircuitBreaker.Permission permission, Throwable error) {
+        if (permission == null) {
+            return;
+        }
+        if (error instanceof LlmOverloadedException || error instanceof GeminiApiException) {
+            circuitBreaker.release(permission);
+        } else if (error instanceof WebClientResponseException response && response.getStatusCode().is4xxClientError()
+                && response.getStatusCode().value() != 429) {
+            circuitBreaker.onSuccess(permission);
+        } else {
+            circuitBreaker.onFailure(permission);
+        }
+    }
+
+    private boolean isRetryable(Throwable error) {
+        if (error instanceof WebClientResponseException response) {
+            return properties.getRetry().getRetryableStatuses().contains(response.getStatusCode().value());
+        }
+        if (error instanceof WebClientRequestException) {
+            // Connection refused/reset and response timeouts surface here
+            return true;
+        }
+        return error instanceof TimeoutException || error instanceof ReadTimeoutException;
+    }
+}
@@ -0,0 +1,21 @@
+package com.studybuddy.service;
+
+import java.time.Duration;
+
+/**
+ * Raised when the password hashing queue is full. Controllers turn it into a 503 with a
+ * Retry-After header rather than letting logins pile up behind the CPU-bound hashing pool.
+ */
+public class PasswordHashingBusyException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public PasswordHashingBusyException(Duration retryAfter) {
+        super("Too many sign-in requests right now. Please try again in " + retryAfter.toSeconds() + " seconds.");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,326 @@
+package com.studybuddy.service;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.studybuddy.config.QuestionBankProperties;
+import com.studybuddy.dto.Quiz;
+import com.studybuddy.entity.BankedQuestion;
+import com.studybuddy.entity.QuizTopic;
+import com.studybuddy.repository.QuestionBankRepository;
+import com.studybuddy.repository.QuizTopicRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serves quizzes from a MongoDB bank of previously generated, validated questions. Requests are
+ * counted per topic and difficulty; a scheduled job tops up the bank for the most requested
+ * topics, so popular quizzes are assembled from stored questions without an LLM call. Unseen
+ * topics fall back to live generation, whose questions are then banked too.
+ * <p>
+ * Request counts are summed in memory and flushed as one bulk of upserts on an interval, so
+ * serving a quiz only reads from MongoDB and a failed count never costs a banked quiz.
+ */
+@Service
+@EnableConfigurationProperties(QuestionBankProperties.class)
+public class QuestionBankService {
+
+    private final QuestionBankProperties properties;
+    private final QuizService quizService;
+    private final QuestionBankRepository questionBankRepository;
+    private final QuizTopicRepository quizTopicRepository;
+    private final MongoTemplate mongoTemplate;
+    private final Counter servedFromBank;
+    private final Counter servedLive;
+    private final Counter questionsBanked;
+    private final Counter duplicatesSkipped;
+
+    // Requests not yet written to quiz_topics, keyed by topic id; merged and removed atomically
+    private final Map<String, TopicRequests> pendingRequests = new ConcurrentHashMap<>();
+
+    private volatile boolean indexesCreated;
+
+    public QuestionBankService(QuestionBankProperties properties,
+                               QuizService quizService,
+                               QuestionBankRepository questionBankRepository,
+                               QuizTopicRepository quizTopicRepository,
+                               MongoTemplate mongoTemplate,
+                               MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.quizService = quizService;
+        this.questionBankRepository = questionBankRepository;
+        this.quizTopicRepository = quizTopicRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.servedFromBank = Counter.builder("quiz.served").tag("source", "bank").register(meterRegistry);
+        this.servedLive = Counter.builder("quiz.served").tag("source", "live").register(meterRegistry);
+        this.questionsBanked = Counter.builder("quiz.bank.questions.added").register(meterRegistry);
+        this.duplicatesSkipped = Counter.builder("quiz.bank.duplicates.skipped").register(meterRegistry);
+    }
+
+    public Mono<Quiz> getQuiz(String topic, int questionCount, String difficulty) {
+        String level = difficulty != null ? difficulty : "medium";
+        if (!properties.isEnabled()) {
+            return quizService.generateQuiz(topic, questionCount, level);
+        }
+        String topicKey = normalizeTopic(topic);
+        recordRequest(topic, topicKey, level);
+
+        return Mono.fromCallable(() -> sample(topicKey, level, questionCount))
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(e -> {
+                    // The bank is an optimization; without Mongo quizzes are still generated live
+                    System.out.println("Question bank unavailable: " + e.getMessage());
+                    return Mono.just(List.of());
+                })
+                .flatMap(banked -> {
+                    if (banked.size() >= questionCount) {
+                        System.out.println("Serving quiz on '" + topic + "' from the question bank");
+                        servedFromBank.increment();
+                        return Mono.just(new Quiz(topic, level, banked));
+                    }
+                    servedLive.increment();
+                    return quizService.generateQuiz(topic, questionCount, level)
+                            .doOnNext(quiz -> Mono.fromRunnable(() -> store(topicKey, level, quiz.questions()))
+                                    .subscribeOn(Schedulers.boundedElastic())
+                                    .subscribe(null, e -> System.out.println("Failed to bank quiz questions: " + e.getMessage())));
+                });
+    }
+
+    /**
+     * Tops up the bank for the most requested topics, one batch per topic and run.
+     */
+    @Scheduled(initialDelayString = "${quiz.bank.fill-initial-delay:1m}", fixedDelayString = "${quiz.bank.fill-interval:5m}")
+    public void fillPopularTopics() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            // Normally done at startup; retried here in case MongoDB was not reachable then
+            createIndexes();
+            List<QuizTopic> topics = quizTopicRepository.findByRequestCountGreaterThanEqual(properties.getMinRequests(),
+                    PageRequest.of(0, properties.getPopularTopics(), Sort.by(Sort.Direction.DESC, "requestCount")));
+            for (QuizTopic topic : topics) {
+                List<String> banked = new ArrayList<>();
+                for (BankedQuestion question : questionBankRepository.findQuestionTextsByTopicKeyAndDifficulty(
+                        topic.getTopicKey(), topic.getDifficulty())) {
+                    banked.add(question.getQuestion());
+                }
+                if (banked.size() >= properties.getTargetSize()) {
+                    continue;
+                }
+                int batch = Math.min(properties.getBatchSize(), properties.getTargetSize() - banked.size());
+                System.out.println("Filling question bank for '" + topic.getTopic() + "' (" + topic.getDifficulty()
+                        + "): " + banked.size() + " banked, generating " + batch);
+                // A cached reply would repeat the previous batch, so each fill is generated fresh and told what is banked
+                Quiz quiz = quizService.generateFreshQuiz(topic.getTopic(), batch, topic.getDifficulty(), banked)
+                        .block(properties.getGenerationTimeout());
+                if (quiz != null) {
+                    store(topic.getTopicKey(), topic.getDifficulty(), quiz.questions());
+                }
+            }
+        } catch (LlmOverloadedException e) {
+            // Leave the capacity to live traffic and try again on the next run
+            System.out.println("Question bank fill paused: " + e.getMessage());
+        } catch (Exception e) {
+            System.out.println("Question bank fill failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the request counts gathered since the last run. Upserts that failed are put back
+     * and retried on the next run.
+     */
+    @Scheduled(initialDelayString = "${quiz.bank.count-flush-interval:10s}", fixedDelayString = "${quiz.bank.count-flush-interval:10s}")
+    public synchronized void flushRequestCounts() {
+        List<TopicRequests> requests = new ArrayList<>();
+        for (String id : pendingRequests.keySet()) {
+            TopicRequests pending = pendingRequests.remove(id);
+            if (pending != null) {
+                requests.add(pending);
+            }
+        }
+        if (requests.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, QuizTopic.class);
+        for (TopicRequests pending : requests) {
+            bulk.upsert(Query.query(Criteria.where("_id").is(pending.id())), new Update()
+                    .inc("request_count", pending.count())
+                    .max("last_requested_at", pending.lastRequestedAt())
+                    .setOnInsert("topic", pending.topic())
+                    .setOnInsert("topic_key", pending.topicKey())
+                    .setOnInsert("difficulty", pending.difficulty()));
+        }
+
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            // The other upserts of an unordered bulk were applied; re-queueing them would count them twice
+            List<TopicRequests> failed = new ArrayList<>();
+            for (BulkWriteError error : e.getErrors()) {
+                failed.add(requests.get(error.getIndex()));
+            }
+            System.out.println("Quiz request counts failed for " + failed.size() + " of " + requests.size()
+                    + " topics, retrying them next run: " + e.getMessage());
+            failed.forEach(this::requeue);
+        } catch (Exception e) {
+            System.out.println("Quiz request counts failed, retrying " + requests.size() + " topics next run: " + e.getMessage());
+            requests.forEach(this::requeue);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushRequestCounts();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexesOnStartup() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            createIndexes();
+        } catch (Exception e) {
+            System.out.println("Could not create question bank indexes, retrying on the next fill: " + e.getMessage());
+        }
+    }
+
+    private void recordRequest(String topic, String topicKey, String difficulty) {
+        requeue(new TopicRequests(topic, topicKey, difficulty, 1, LocalDateTime.now()));
+    }
+
+    private void requeue(TopicRequests requests) {
+        pendingRequests.merge(requests.id(), requests, TopicRequests::plus);
+    }
+
+    private List<Quiz.Question> sample(String topicKey, String difficulty, int questionCount) {
+        TypedAggregation<BankedQuestion> aggregation = Aggregation.newAggregation(BankedQuestion.class,
+                Aggregation.match(Criteria.where("topicKey").is(topicKey).and("difficulty").is(difficulty)),
+                Aggregation.sample(questionCount));
+        List<Quiz.Question> questions = new ArrayList<>(questionCount);
+        for (BankedQuestion banked : mongoTemplate.aggregate(aggregation, BankedQuestion.class).getMappedResults()) {
+            questions.add(toQuestion(banked));
+        }
+        return questions;
+    }
+
+    private void store(String topicKey, String difficulty, List<Quiz.Question> questions) {
+        List<Set<String>> existing = new ArrayList<>();
+        for (BankedQuestion banked : questionBankRepository.findQuestionTextsByTopicKeyAndDifficulty(topicKey, difficulty)) {
+            existing.add(QuestionSimilarity.tokens(banked.getQuestion()));
+        }
+
+        int added = 0;
+        for (Quiz.Question question : questions) {
+            if (existing.size() >= properties.getTargetSize()) {
+                break;
+            }
+            Set<String> tokens = QuestionSimilarity.tokens(question.question());
+            if (isNearDuplicate(tokens, existing)) {
+                duplicatesSkipped.increment();
+                continue;
+            }
+            try {
+                questionBankRepository.save(toBanked(topicKey, difficulty, question, tokens));
+                existing.add(tokens);
+                added++;
+            } catch (DuplicateKeyException e) {
+                // Banked concurrently by another request or the fill job
+                duplicatesSkipped.increment();
+            }
+        }
+        questionsBanked.increment(added);
+        System.out.println("Banked " + added + " of " + questions.size() + " questions for '" + topicKey + "' (" + difficulty + ")");
+    }
+
+    private boolean isNearDuplicate(Set<String> tokens, List<Set<String>> existing) {
+        for (Set<String> other : existing) {
+            if (QuestionSimilarity.jaccard(tokens, other) >= properties.getSimilarityThreshold()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void createIndexes() {
+        if (indexesCreated) {
+            return;
+        }
+        mongoTemplate.indexOps(BankedQuestion.class).createIndex(new Index()
+                .on("topic_key", Sort.Direction.ASC)
+                .on("difficulty", Sort.Direction.ASC)
+                .on("fingerprint", Sort.Direction.ASC)
+                .unique()
+                .named("topic_difficulty_fingerprint"));
+        mongoTemplate.indexOps(QuizTopic.class).createIndex(new Index()
+                .on("request_count", Sort.Direction.DESC)
+                .named("request_count"));
+        indexesCreated = true;
+    }
+
+    private BankedQuestion toBanked(String topicKey, String difficulty, Quiz.Question question, Set<String> tokens) {
+        List<String> options = new ArrayList<>(question.options().size());
+        int correctIndex = -1;
+        for (int i = 0; i < question.options().size(); i++) {
+            Quiz.Option option = question.options().get(i);
+            options.add(option.text());
+            if (option.correct()) {
+                correctIndex = i;
+            }
+        }
+        return new BankedQuestion(topicKey, difficulty, question.question(), options, correctIndex,
+                question.explanation(), QuestionSimilarity.fingerprint(tokens));
+    }
+
+    private Quiz.Question toQuestion(BankedQuestion banked) {
+        List<Quiz.Option> options = new ArrayList<>(banked.getOptions().size());
+        for (int i = 0; i < banked.getOptions().size(); i++) {
+            options.add(new Quiz.Option(banked.getOptions().get(i), i == banked.getCorrectIndex()));
+        }
+        return new Quiz.Question(banked.getQuestion(), List.copyOf(options), banked.getExplanation());
+    }
+
+    private record TopicRequests(String topic, String topicKey, String difficulty, long count, LocalDateTime lastRequestedAt) {
+
+        String id() {
+            return topicKey + "|" + difficulty;
+        }
+
+        TopicRequests plus(TopicRequests other) {
+            LocalDateTime latest = other.lastRequestedAt.isAfter(lastRequestedAt) ? other.lastRequestedAt : lastRequestedAt;
+            return new TopicRequests(topic, topicKey, difficulty, count + other.count, latest);
+        }
+    }
+
+    static String normalizeTopic(String topic) {
+        return topic.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+}
@@ -0,0 +1,47 @@
+package com.studybuddy.service;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Near-duplicate detection for quiz questions based on their content words. Case, punctuation,
+ * word order and common filler words are ignored, so "What is a stack?" and "A stack is what?"
+ * get the same fingerprint.
+ */
+public final class QuestionSimilarity {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "the", "is", "are", "was", "were", "be", "of", "in", "on", "to", "for", "and", "or",
+            "which", "what", "following", "does", "do", "it", "its", "this", "that", "by", "with", "as");
+
+    private QuestionSimilarity() {
+    }
+
+    public static Set<String> tokens(String question) {
+        Set<String> tokens = new TreeSet<>();
+        for (String word : question.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty() && !STOP_WORDS.contains(word)) {
+                tokens.add(word);
+            }
+        }
+        return tokens;
+    }
+
+    public static String fingerprint(Set<String> tokens) {
+        return String.join(" ", tokens);
+    }
+
+    public static double jaccard(Set<String> a, Set<String> b) {
+        if (a.isEmpty() && b.isEmpty()) {
+            return 1.0;
+        }
+        int shared = 0;
+        for (String token : a) {
+            if (b.contains(token)) {
+                shared++;
+            }
+        }
+        return (double) shared / (a.size() + b.size() - shared);
+    }
+}
@@ -0,0 +1,137 @@
+package com.studybuddy.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.studybuddy.dto.Quiz;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Turns a structured quiz reply into {@link Quiz.Question}s. Small defects are repaired on the
+ * way (code fences, "A)" prefixes on options, a letter instead of an index for the answer);
+ * questions that still break the rules are returned as-is and fail {@link Quiz.Question#isValid()}.
+ * Replies in the older plain-text "Question: / A) / Correct: X" format are understood as well.
+ */
+public class QuizParser {
+
+    /**
+     * Gemini response schema for {@code {"questions": [{question, options[4], correctIndex, explanation}]}}.
+     */
+    public static final Map<String, Object> RESPONSE_SCHEMA = Map.of(
+            "type", "OBJECT",
+            "properties", Map.of("questions", Map.of(
+                    "type", "ARRAY",
+                    "items", Map.of(
+                            "type", "OBJECT",
+                            "properties", Map.of(
+                                    "question", Map.of("type", "STRING"),
+                                    "options", Map.of(
+                                            "type", "ARRAY",
+                                            "items", Map.of("type", "STRING"),
+                                            "minItems", Quiz.OPTIONS_PER_QUESTION,
+                                            "maxItems", Quiz.OPTIONS_PER_QUESTION),
+                                    "correctIndex", Map.of(
+                                            "type", "INTEGER",
+                                            "description", "Zero-based index of the single correct option"),
+                                    "explanation", Map.of("type", "STRING")),
+                            "required", List.of("question", "options", "correctIndex"),
+                            "propertyOrdering", List.of("question", "options", "correctIndex", "explanation")))),
+            "required", List.of("questions"));
+
+    private static final Pattern OPTION_PREFIX = Pattern.compile("^\\s*(?:\\(?[A-Da-d][).:]|[1-4][).])\\s+");
+    private static final Pattern TEXT_OPTION = Pattern.compile("^\\s*([A-D])[).]\\s*(.*)$");
+    private static final Pattern TEXT_CORRECT = Pattern.compile("(?i)^\\s*correct(?: answer)?\\s*:\\s*\\(?([A-D])\\b.*$");
+
+    private final ObjectMapper objectMapper;
+
+    public QuizParser(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public List<Quiz.Question> parse(String reply) {
+        if (reply == null || reply.isBlank()) {
+            return List.of();
+        }
+        String json = stripCodeFence(reply.trim());
+        if (!json.startsWith("{") && !json.startsWith("[")) {
+            return parseText(reply);
+        }
+        try {
+            JsonNode root = objectMapper.readTree(json);
+            JsonNode items = root.isArray() ? root : root.path("questions");
+            List<Quiz.Question> questions = new ArrayList<>(items.size());
+            for (JsonNode item : items) {
+                questions.add(toQuestion(item));
+            }
+            return questions;
+        } catch (Exception e) {
+            System.out.println("Quiz reply is not valid JSON: " + e.getMessage());
+            return parseText(reply);
+        }
+    }
+
+    private Quiz.Question toQuestion(JsonNode item) {
+        List<String> texts = new ArrayList<>(Quiz.OPTIONS_PER_QUESTION);
+        for (JsonNode option : item.path("options")) {
+            // Options sometimes come back as {"text": ...} objects instead of plain strings
+            String text = option.isObject() ? option.path("text").asText("") : option.asText("");
+            texts.add(OPTION_PREFIX.matcher(text).replaceFirst("").trim());
+        }
+        return question(item.path("question").asText("").trim(), texts, correctIndex(item, texts),
+                item.path("explanation").asText(null));
+    }
+
+    private int correctIndex(JsonNode item, List<String> options) {
+        JsonNode index = item.path("correctIndex");
+        if (index.canConvertToInt()) {
+            return index.asInt();
+        }
+        String answer = item.path(index.isMissingNode() ? "correctAnswer" : "correctIndex").asText("").trim();
+        if (answer.length() == 1 && answer.charAt(0) >= 'A' && answer.charAt(0) <= 'D') {
+            return answer.charAt(0) - 'A';
+        }
+        return options.indexOf(answer);
+    }
+
+    private List<Quiz.Question> parseText(String reply) {
+        List<Quiz.Question> questions = new ArrayList<>();
+        String question = null;
+        List<String> options = new ArrayList<>();
+        for (String line : reply.split("\\R")) {
+            Matcher option = TEXT_OPTION.matcher(line);
+            Matcher correct = TEXT_CORRECT.matcher(line);
+            if (correct.matches() && question != null) {
+                questions.add(question(question, options, correct.group(1).charAt(0) - 'A', null));
+                question = null;
+                options = new ArrayList<>();
+            } else if (option.matches() && question != null) {
+                options.add(option.group(2).trim());
+            } else if (!line.isBlank() && options.isEmpty()) {
+                String text = line.replaceAll("\\*\\*", "").replaceFirst("(?i)^\\s*(?:question\\s*\\d*[:.]|\\d+[.)])\\s*", "").trim();
+                question = question == null ? text : question + " " + text;
+            }
+        }
+        return questions;
+    }
+
+    private Quiz.Question question(String text, List<String> options, int correctIndex, String explanation) {
+        List<Quiz.Option> parsed = new ArrayList<>(options.size());
+        for (int i = 0; i < options.size(); i++) {
+            parsed.add(new Quiz.Option(options.get(i), i == correctIndex));
+        }
+        return new Quiz.Question(text, List.copyOf(parsed), explanation);
+    }
+
+    private String stripCodeFence(String reply) {
+        if (!reply.startsWith("```")) {
+            return reply;
+        }
+        int start = reply.indexOf('\n');
+        int end = reply.lastIndexOf("```");
+        return start < 0 || end <= start ? reply : reply.substring(start + 1, end).trim();
+    }
+}
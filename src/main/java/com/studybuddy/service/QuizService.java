@@ -0,0 +1,213 @@
+package com.studybuddy.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.studybuddy.dto.Quiz;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Generates quizzes as schema-constrained JSON and validates every question. Invalid or
+ * duplicate questions are dropped and only the missing number is requested again, so one
+ * malformed question never costs a full regeneration. Large quizzes are split into chunks with
+ * distinct subtopic focuses that are generated in parallel and merged.
+ */
+@Service
+public class QuizService {
+
+    // Each chunk gets its own focus so parallel generations do not converge on the same questions
+    private static final List<String> SUBTOPIC_HINTS = List.of(
+            "core definitions, terminology and fundamental concepts",
+            "how it works: mechanisms, processes and relationships between ideas",
+            "practical applications, worked examples and problem solving",
+            "common misconceptions, edge cases and comparisons with related topics",
+            "history, context and real-world significance",
+            "analysis and evaluation of scenarios");
+
+    private final GeminiFlashService geminiService;
+    private final QuizParser quizParser;
+    private final int repairAttempts;
+    private final int chunkSize;
+    private final int maxChunks;
+    private final double similarityThreshold;
+
+    public QuizService(GeminiFlashService geminiService,
+                       @Value("${quiz.repair-attempts:2}") int repairAttempts,
+                       @Value("${quiz.chunk-size:5}") int chunkSize,
+                       @Value("${quiz.max-chunks:4}") int maxChunks,
+                       @Value("${quiz.similarity-threshold:0.8}") double similarityThreshold) {
+        this.geminiService = geminiService;
+        this.quizParser = new QuizParser(new ObjectMapper());
+        this.repairAttempts = repairAttempts;
+        this.chunkSize = chunkSize;
+        this.maxChunks = Math.min(maxChunks, SUBTOPIC_HINTS.size());
+        this.similarityThreshold = similarityThreshold;
+    }
+
+    public Mono<Quiz> generateQuiz(String topic, int questionCount, String difficulty) {
+        return generate(topic, questionCount, difficulty, List.of(), true);
+    }
+
+    /**
+     * Generates new questions for the question bank: replies bypass the response cache and the
+     * model is told not to repeat any of {@code avoidQuestions}, so repeated calls keep adding
+     * different questions.
+     */
+    public Mono<Quiz> generateFreshQuiz(String topic, int questionCount, String difficulty, List<String> avoidQuestions) {
+        return generate(topic, questionCount, difficulty, avoidQuestions, false);
+    }
+
+    private Mono<Quiz> generate(String topic, int questionCount, String difficulty, List<String> avoid, boolean cached) {
+        String level = difficulty != null ? difficulty : "medium";
+        int chunks = Math.min(maxChunks, (questionCount + chunkSize - 1) / chunkSize);
+        Mono<List<Quiz.Question>> questions = chunks > 1
+                ? generateChunked(topic, questionCount, level, chunks, avoid, cached)
+                : fill(topic, questionCount, level, new ArrayList<>(), repairAttempts, avoid, cached);
+
+        return questions.map(accepted -> {
+            if (accepted.isEmpty()) {
+                throw new GeminiApiException("The AI returned no usable questions. Please try again.");
+            }
+            if (accepted.size() < questionCount) {
+                System.out.println("Quiz on '" + topic + "' has " + accepted.size() + " of " + questionCount + " questions after repairs");
+            }
+            return new Quiz(topic, level, List.copyOf(accepted));
+        });
+    }
+
+    /**
+     * Requests the quiz as {@code chunks} concurrent sub-quizzes, then merges them in chunk order,
+     * dropping invalid and near-duplicate questions. Shortfalls go through the normal repair rounds.
+     */
+    private Mono<List<Quiz.Question>> generateChunked(String topic, int questionCount, String difficulty, int chunks,
+                                                      List<String> avoid, boolean cached) {
+        return Mono.defer(() -> {
+            System.out.println("Generating " + questionCount + "-question quiz on '" + topic + "' in " + chunks + " parallel chunks");
+            Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+
+            return Flux.range(0, chunks)
+                    .flatMapSequential(chunk -> {
+                        // Spread the remainder over the first chunks, e.g. 18 -> 5, 5, 4, 4
+                        int size = questionCount / chunks + (chunk < questionCount % chunks ? 1 : 0);
+                        String prompt = buildQuizPrompt(topic, size, difficulty, avoid, SUBTOPIC_HINTS.get(chunk));
+                        return request(prompt, cached).onErrorResume(e -> {
+                            System.out.println("Quiz chunk " + (chunk + 1) + "/" + chunks + " failed: " + e.getMessage());
+                            failures.add(e);
+                            return Mono.just(List.of());
+                        });
+                    }, chunks)
+                    .collectList()
+                    .flatMap(results -> {
+                        List<Quiz.Question> accepted = new ArrayList<>(questionCount);
+                        for (List<Quiz.Question> parsed : results) {
+                            accept(parsed, accepted, questionCount);
+                        }
+                        if (accepted.isEmpty() && !failures.isEmpty()) {
+                            return Mono.error(failures.peek());
+                        }
+                        if (accepted.size() >= questionCount || repairAttempts == 0) {
+                            return Mono.just(accepted);
+                        }
+                        System.out.println("Merged chunks gave " + accepted.size() + " of " + questionCount + " questions");
+                        return fill(topic, questionCount, difficulty, accepted, repairAttempts - 1, avoid, cached);
+                    });
+        });
+    }
+
+    private Mono<List<Quiz.Question>> fill(String topic, int questionCount, String difficulty,
+                                           List<Quiz.Question> accepted, int attemptsLeft, List<String> avoid, boolean cached) {
+        int missing = questionCount - accepted.size();
+        List<String> existing = new ArrayList<>(avoid);
+        for (Quiz.Question question : accepted) {
+            existing.add(question.question());
+        }
+        String prompt = buildQuizPrompt(topic, missing, difficulty, existing, null);
+        return request(prompt, cached)
+                .flatMap(parsed -> {
+                    int added = accept(parsed, accepted, questionCount);
+                    int rejected = parsed.size() - added;
+                    if (rejected > 0 || accepted.size() < questionCount) {
+                        System.out.println("Quiz reply: " + added + " questions accepted, " + rejected + " rejected, "
+                                + (questionCount - accepted.size()) + " still missing");
+                    }
+                    if (accepted.size() >= questionCount || attemptsLeft == 0) {
+                        return Mono.just(accepted);
+                    }
+                    return fill(topic, questionCount, difficulty, accepted, attemptsLeft - 1, avoid, cached);
+                })
+                // A failed repair round still leaves the questions accepted so far, even when it was shed by the
+                // bulkhead: a short quiz is more useful than a 503 that throws away the questions already generated
+                .onErrorResume(e -> !accepted.isEmpty(), e -> {
+                    System.out.println("Quiz repair request failed: " + e.getMessage());
+                    return Mono.just(accepted);
+                });
+    }
+
+    private Mono<List<Quiz.Question>> request(String prompt, boolean cached) {
+        return geminiService.generateStructuredResponse(prompt, "quiz", QuizParser.RESPONSE_SCHEMA, cached)
+                .map(quizParser::parse);
+    }
+
+    private int accept(List<Quiz.Question> parsed, List<Quiz.Question> accepted, int questionCount) {
+        List<Set<String>> seen = new ArrayList<>(accepted.size() + parsed.size());
+        for (Quiz.Question question : accepted) {
+            seen.add(QuestionSimilarity.tokens(question.question()));
+        }
+        int added = 0;
+        for (Quiz.Question question : parsed) {
+            if (accepted.size() >= questionCount) {
+                break;
+            }
+            if (!question.isValid()) {
+                continue;
+            }
+            Set<String> tokens = QuestionSimilarity.tokens(question.question());
+            if (!isNearDuplicate(tokens, seen)) {
+                accepted.add(question);
+                seen.add(tokens);
+                added++;
+            }
+        }
+        return added;
+    }
+
+    private boolean isNearDuplicate(Set<String> tokens, List<Set<String>> seen) {
+        for (Set<String> other : seen) {
+            if (QuestionSimilarity.jaccard(tokens, other) >= similarityThreshold) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String buildQuizPrompt(String topic, int questionCount, String difficulty,
+                                   List<String> existing, String focus) {
+        StringBuilder prompt = new StringBuilder(String.format("""
+                Generate a %d-question multiple choice quiz on the topic: "%s".
+                Difficulty level: %s.
+
+                Requirements:
+                - Each question should be clear and concise and test understanding, not just memorization
+                - Exactly 4 distinct, plausible options per question, without "A)" style prefixes
+                - Exactly one correct option; give its zero-based position as correctIndex
+                - A one-sentence explanation of the correct answer
+                """, questionCount, topic, difficulty));
+        if (focus != null) {
+            prompt.append("- This is one part of a larger quiz; only ask about ").append(focus).append('\n');
+        }
+        if (!existing.isEmpty()) {
+            prompt.append("\nDo not repeat any of these existing questions:\n");
+            for (String question : existing) {
+                prompt.append("- ").append(question).append('\n');
+            }
+        }
+        return prompt.toString();
+    }
+}
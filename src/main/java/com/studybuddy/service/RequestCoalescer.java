@@ -0,0 +1,52 @@
+package com.studybuddy.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight deduplication of concurrent upstream calls.
+ * Callers asking for the same key while a call is in flight subscribe to that call
+ * instead of starting their own; the entry is dropped as soon as the call terminates.
+ */
+@Component
+public class RequestCoalescer {
+
+    private final Map<Object, Mono<String>> inFlight = new ConcurrentHashMap<>();
+    private final Counter upstreamCalls;
+    private final Counter coalescedCalls;
+
+    public RequestCoalescer(MeterRegistry meterRegistry) {
+        this.upstreamCalls = Counter.builder("gemini.requests.upstream")
+                .description("Calls that went upstream after in-flight deduplication")
+                .register(meterRegistry);
+        this.coalescedCalls = Counter.builder("gemini.requests.coalesced")
+                .description("Calls that joined an identical in-flight upstream call")
+                .register(meterRegistry);
+        meterRegistry.gauge("gemini.requests.in.flight", inFlight, Map::size);
+    }
+
+    public Mono<String> execute(Object key, Supplier<Mono<String>> upstream) {
+        return Mono.defer(() -> {
+            boolean[] created = new boolean[1];
+            Mono<String> shared = inFlight.computeIfAbsent(key, k -> {
+                created[0] = true;
+                // share() keeps one upstream subscription for every caller and replays its result
+                return upstream.get()
+                        .doFinally(signal -> inFlight.remove(k))
+                        .share();
+            });
+            if (created[0]) {
+                upstreamCalls.increment();
+            } else {
+                coalescedCalls.increment();
+            }
+            return shared;
+        });
+    }
+}
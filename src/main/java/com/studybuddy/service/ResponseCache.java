@@ -0,0 +1,102 @@
+package com.studybuddy.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.studybuddy.config.ResponseCacheProperties;
+import com.studybuddy.dto.LlmRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, TTL-based cache of Gemini replies for identical prompts.
+ * Entries are keyed on the query type, a digest of the normalized enhanced prompt
+ * and the generation config, so large document prompts are not retained in memory.
+ */
+@Component
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+public class ResponseCache {
+
+    private final ResponseCacheProperties properties;
+    private final Cache<Key, String> cache;
+
+    public ResponseCache(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxEntries())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gemini.responses");
+    }
+
+    public Key keyFor(LlmRequest request) {
+        String normalized = normalize(request.prompt(), request.queryType());
+        // Structured replies depend on the response schema as well as the prompt
+        if (request.responseSchema() != null) {
+            normalized += "\n" + request.responseSchema();
+        }
+        return new Key(request.queryType(), digest(normalized), request.temperature(), request.maxOutputTokens());
+    }
+
+    public boolean isEnabledFor(String queryType) {
+        return !properties.getDisabledQueryTypes().contains(queryType);
+    }
+
+    /**
+     * Returns the cached reply for the key, or subscribes to the loader and caches its value.
+     * Errors from the loader are propagated and never cached.
+     */
+    public Mono<String> getOrLoad(Key key, Supplier<Mono<String>> loader) {
+        if (!isEnabledFor(key.queryType())) {
+            return loader.get();
+        }
+        return Mono.defer(() -> {
+            String cached = cache.getIfPresent(key);
+            if (cached != null) {
+                System.out.println("Response cache hit for query type: " + key.queryType());
+                return Mono.just(cached);
+            }
+            return loader.get().doOnNext(response -> cache.put(key, response));
+        });
+    }
+
+    public String getIfPresent(Key key) {
+        return isEnabledFor(key.queryType()) ? cache.getIfPresent(key) : null;
+    }
+
+    public void put(Key key, String response) {
+        if (isEnabledFor(key.queryType()) && response != null && !response.isEmpty()) {
+            cache.put(key, response);
+        }
+    }
+
+    private String normalize(String prompt, String queryType) {
+        String collapsed = prompt.trim().replaceAll("\\s+", " ");
+        // Only short chat questions are folded, where case just splits otherwise identical prompts
+        boolean foldCase = properties.getCaseInsensitiveQueryTypes().contains(queryType)
+                && collapsed.length() <= properties.getCaseInsensitiveMaxLength();
+        return foldCase ? collapsed.toLowerCase(Locale.ROOT) : collapsed;
+    }
+
+    private String digest(String value) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public record Key(String queryType, String promptDigest, double temperature, int maxTokens) {
+    }
+}
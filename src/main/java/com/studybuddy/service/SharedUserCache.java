@@ -0,0 +1,19 @@
+package com.studybuddy.service;
+
+import com.studybuddy.entity.User;
+
+import java.util.Optional;
+
+/**
+ * Optional second cache tier shared between instances (e.g. Redis), consulted by {@link UserCache}
+ * after its local tier misses and before MongoDB. Define a bean implementing this to enable it.
+ * Implementations should apply their own TTL and treat failures as misses rather than throwing.
+ */
+public interface SharedUserCache {
+
+    Optional<User> get(String email);
+
+    void put(String email, User user);
+
+    void evict(String email);
+}
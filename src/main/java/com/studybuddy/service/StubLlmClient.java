@@ -0,0 +1,182 @@
+package com.studybuddy.service;
+
+import com.studybuddy.dto.LlmChunk;
+import com.studybuddy.dto.LlmRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-process {@link LlmClient} for load tests and offline benchmarking, active with the
+ * {@code stub} profile. Time to first token follows a log-normal distribution fitted to the
+ * configured median and p99, the reply is emitted at a fixed token rate, and a configurable
+ * share of calls fails with a 503 so retries and the circuit breaker are exercised.
+ * Reply text is derived from the prompt, so identical prompts get identical replies.
+ */
+@Component
+@Profile("stub")
+public class StubLlmClient implements LlmClient {
+
+    // z-score of the 99th percentile of the standard normal distribution
+    private static final double Z_99 = 2.326;
+
+    private static final Pattern QUESTION_COUNT = Pattern.compile("Generate a (\\d+)-question");
+
+    private static final String[] WORDS = {
+            "the", "concept", "learning", "example", "process", "system", "value", "result",
+            "because", "important", "students", "often", "review", "practice", "model", "data",
+            "each", "step", "helps", "understand", "which", "problem", "solution", "method"
+    };
+
+    private final double medianMillis;
+    private final double sigma;
+    private final double tokensPerSecond;
+    private final int replyTokens;
+    private final double errorRate;
+    private final Random random;
+
+    public StubLlmClient(@Value("${llm.stub.latency-median:400ms}") Duration latencyMedian,
+                         @Value("${llm.stub.latency-p99:2s}") Duration latencyP99,
+                         @Value("${llm.stub.tokens-per-second:80}") double tokensPerSecond,
+                         @Value("${llm.stub.reply-tokens:120}") int replyTokens,
+                         @Value("${llm.stub.error-rate:0.0}") double errorRate,
+                         @Value("${llm.stub.seed:42}") long seed) {
+        this.medianMillis = Math.max(1, latencyMedian.toMillis());
+        this.sigma = Math.max(0, Math.log(Math.max(latencyP99.toMillis(), medianMillis) / medianMillis) / Z_99);
+        this.tokensPerSecond = tokensPerSecond;
+        this.replyTokens = replyTokens;
+        this.errorRate = errorRate;
+        this.random = new Random(seed);
+        System.out.println("Using stub LLM client (median " + latencyMedian.toMillis() + "ms, p99 "
+                + latencyP99.toMillis() + "ms, " + tokensPerSecond + " tokens/s, error rate " + errorRate + ")");
+    }
+
+    @Override
+    public Mono<String> generate(LlmRequest request) {
+        return Mono.defer(() -> {
+            String reply = replyFor(request);
+            Duration delay = firstTokenDelay().plus(generationTime(countTokens(reply)));
+            Mono<String> result = shouldFail() ? Mono.error(unavailable()) : Mono.just(reply);
+            return Mono.delay(delay).then(result);
+        });
+    }
+
+    @Override
+    public Flux<LlmChunk> stream(LlmRequest request) {
+        return Flux.defer(() -> {
+            if (shouldFail()) {
+                return Mono.delay(firstTokenDelay()).then(Mono.<LlmChunk>error(unavailable())).flux();
+            }
+            List<String> chunks = toChunks(replyFor(request));
+            return Mono.delay(firstTokenDelay())
+                    .thenMany(Flux.fromIterable(chunks).map(LlmChunk::text).delayElements(generationTime(1)))
+                    .concatWith(Mono.just(new LlmChunk("", LlmChunk.STOP)));
+        });
+    }
+
+    private synchronized Duration firstTokenDelay() {
+        double millis = medianMillis * Math.exp(sigma * random.nextGaussian());
+        return Duration.ofMillis(Math.round(millis));
+    }
+
+    private synchronized boolean shouldFail() {
+        return errorRate > 0 && random.nextDouble() < errorRate;
+    }
+
+    private Duration generationTime(int tokens) {
+        if (tokensPerSecond <= 0) {
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos((long) (tokens * 1_000_000_000L / tokensPerSecond));
+    }
+
+    private WebClientResponseException unavailable() {
+        return WebClientResponseException.create(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable (stub)",
+                HttpHeaders.EMPTY, new byte[0], StandardCharsets.UTF_8, null);
+    }
+
+    private String replyFor(LlmRequest request) {
+        Random textRandom = new Random(request.prompt().hashCode());
+        // Quiz prompts are recognised by their wording since the controller may send them as "general"
+        Matcher matcher = QUESTION_COUNT.matcher(request.prompt());
+        if (matcher.find()) {
+            int count = Integer.parseInt(matcher.group(1));
+            return request.responseSchema() != null ? quizJson(count, textRandom) : quizReply(count, textRandom);
+        }
+        return sentences(Math.min(replyTokens, request.maxOutputTokens()), textRandom);
+    }
+
+    private String quizReply(int count, Random textRandom) {
+        StringBuilder quiz = new StringBuilder();
+        for (int i = 1; i <= count; i++) {
+            quiz.append("Question: ").append(sentences(10, textRandom).replace(".", "?")).append('\n');
+            for (char option = 'A'; option <= 'D'; option++) {
+                quiz.append(option).append(") ").append(sentences(4, textRandom).replace(".", "")).append('\n');
+            }
+            quiz.append("Correct: ").append((char) ('A' + textRandom.nextInt(4))).append("\n\n");
+        }
+        return quiz.toString().trim();
+    }
+
+    private String quizJson(int count, Random textRandom) {
+        StringBuilder quiz = new StringBuilder("{\"questions\":[");
+        for (int i = 0; i < count; i++) {
+            quiz.append(i == 0 ? "" : ",")
+                    .append("{\"question\":\"").append(sentences(10, textRandom).replace(".", "")).append(" #").append(i + 1).append("?\",")
+                    .append("\"options\":[");
+            for (int option = 0; option < 4; option++) {
+                quiz.append(option == 0 ? "" : ",")
+                        .append('"').append(sentences(4, textRandom).replace(".", "")).append('"');
+            }
+            quiz.append("],\"correctIndex\":").append(textRandom.nextInt(4))
+                    .append(",\"explanation\":\"").append(sentences(8, textRandom)).append("\"}");
+        }
+        return quiz.append("]}").toString();
+    }
+
+    private String sentences(int tokens, Random textRandom) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < tokens; i++) {
+            String word = WORDS[textRandom.nextInt(WORDS.length)];
+            boolean sentenceStart = text.isEmpty() || text.charAt(text.length() - 1) == '.';
+            if (!text.isEmpty()) {
+                text.append(' ');
+            }
+            text.append(sentenceStart ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : word);
+            if (i == tokens - 1 || textRandom.nextInt(12) == 0) {
+                text.append('.');
+            }
+        }
+        return text.toString();
+    }
+
+    private int countTokens(String text) {
+        return text.split("\\s+").length;
+    }
+
+    // One chunk per word, keeping the separating whitespace so chunks concatenate back to the reply
+    private List<String> toChunks(String reply) {
+        List<String> chunks = new ArrayList<>();
+        int start = 0;
+        for (int i = 1; i <= reply.length(); i++) {
+            if (i == reply.length() || Character.isWhitespace(reply.charAt(i - 1)) && !Character.isWhitespace(reply.charAt(i))) {
+                chunks.add(reply.substring(start, i));
+                start = i;
+            }
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,135 @@
+package com.studybuddy.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.studybuddy.config.UserCacheProperties;
+import com.studybuddy.entity.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of full {@link User} documents keyed by normalized email. Only complete
+ * documents are cached, never projections, and unknown emails are not cached so a new
+ * registration is visible at once. Counters written behind by {@link UserStatsAggregator} may be
+ * up to the TTL stale in cached copies. Callers must not modify cached users; write paths read
+ * from the repository and call {@link #invalidate} after saving.
+ */
+@Component
+@EnableConfigurationProperties(UserCacheProperties.class)
+public class UserCache {
+
+    private final UserCacheProperties properties;
+    private final Cache<String, User> cache;
+    private final SharedUserCache sharedCache;
+    private final Counter sharedHits;
+    private final Counter sharedMisses;
+
+    public UserCache(UserCacheProperties properties, ObjectProvider<SharedUserCache> sharedCache, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxEntries())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        this.sharedCache = sharedCache.getIfAvailable();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
+        this.sharedHits = Counter.builder("users.shared.requests").tag("result", "hit").register(meterRegistry);
+        this.sharedMisses = Counter.builder("users.shared.requests").tag("result", "miss").register(meterRegistry);
+        System.out.println("User cache: " + (properties.isEnabled() ? properties.getMaxEntries() + " entries, ttl " + properties.getTtl() : "disabled")
+                + (this.sharedCache != null ? ", shared tier " + this.sharedCache.getClass().getSimpleName() : ""));
+    }
+
+    /**
+     * Returns the cached user, or loads it with the loader and caches it. Concurrent misses for
+     * the same email share one load.
+     */
+    public Optional<User> get(String email, Function<String, Optional<User>> loader) {
+        String key = normalize(email);
+        if (key == null) {
+            return Optional.empty();
+        }
+        if (!properties.isEnabled()) {
+            return loader.apply(key);
+        }
+        return Optional.ofNullable(cache.get(key, k -> loadThroughShared(k, loader)));
+    }
+
+    /**
+     * Returns the user if either tier holds it, without loading. For callers that fall back to a
+     * cheaper projection on a miss.
+     */
+    public Optional<User> getIfPresent(String email) {
+        String key = normalize(email);
+        if (key == null || !properties.isEnabled()) {
+            return Optional.empty();
+        }
+        User cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<User> shared = sharedGet(key);
+        shared.ifPresent(user -> cache.put(key, user));
+        return shared;
+    }
+
+    public void invalidate(String email) {
+        String key = normalize(email);
+        if (key == null) {
+            return;
+        }
+        cache.invalidate(key);
+        if (sharedCache != null) {
+            try {
+                sharedCache.evict(key);
+            } catch (Exception e) {
+                System.out.println("Could not evict " + key + " from the shared user cache: " + e.getMessage());
+            }
+        }
+    }
+
+    private User loadThroughShared(String key, Function<String, Optional<User>> loader) {
+        Optional<User> shared = sharedGet(key);
+        if (shared.isPresent()) {
+            return shared.get();
+        }
+        User loaded = loader.apply(key).orElse(null);
+        if (loaded != null && sharedCache != null) {
+            try {
+                sharedCache.put(key, loaded);
+            } catch (Exception e) {
+                System.out.println("Could not write " + key + " to the shared user cache: " + e.getMessage());
+            }
+        }
+        return loaded;
+    }
+
+    private Optional<User> sharedGet(String key) {
+        if (sharedCache == null) {
+            return Optional.empty();
+        }
+        try {
+            Optional<User> user = sharedCache.get(key);
+            (user.isPresent() ? sharedHits : sharedMisses).increment();
+            return user;
+        } catch (Exception e) {
+            sharedMisses.increment();
+            System.out.println("Shared user cache read failed for " + key + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private String normalize(String email) {
+        if (email == null || email.trim().isEmpty()) {
+            return null;
+        }
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,202 @@
+package com.studybuddy.service;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.studybuddy.entity.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind aggregation of per-user activity counters and last-login times. Increments are
+ * summed in memory with {@link LongAdder}s and flushed on an interval as one unordered bulk of
+ * {@code $inc}/{@code $max} updates, so counting a chat message or a login costs no database
+ * round trip. Updates that failed are put back and retried on the next run; pending updates are
+ * flushed once more on shutdown.
+ */
+@Component
+public class UserStatsAggregator {
+
+    // Flush runs without activity before a user's counters are dropped from memory
+    private static final int IDLE_FLUSHES_BEFORE_EVICTION = 6;
+
+    private final MongoTemplate mongoTemplate;
+    private final Map<String, PendingStats> pending = new ConcurrentHashMap<>();
+    private final Counter flushedIncrements;
+    private final Counter failedFlushes;
+
+    // Evicted entries are drained once more on the next flush, in case a recorder still held them
+    private List<PendingStats> evicted = new ArrayList<>();
+
+    public UserStatsAggregator(MongoTemplate mongoTemplate, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.flushedIncrements = Counter.builder("user.stats.flushed.increments").register(meterRegistry);
+        this.failedFlushes = Counter.builder("user.stats.flush.failures").register(meterRegistry);
+        Gauge.builder("user.stats.pending.users", pending, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Counts one action ("quiz", "document" or "chat") for the user. Other action types are ignored.
+     */
+    public void record(String email, String actionType) {
+        if (email == null || email.isBlank()) {
+            return;
+        }
+        switch (actionType) {
+            case "quiz", "document", "chat" -> pending.computeIfAbsent(email, PendingStats::new).add(actionType, 1);
+            default -> System.out.println("Ignoring unknown user stats action: " + actionType);
+        }
+    }
+
+    /**
+     * Records a successful login; only the latest time per user is written.
+     */
+    public void recordLogin(String email) {
+        if (email == null || email.isBlank()) {
+            return;
+        }
+        pending.computeIfAbsent(email, PendingStats::new).loggedInAt(LocalDateTime.now());
+    }
+
+    @Scheduled(initialDelayString = "${user.stats.flush-interval:10s}", fixedDelayString = "${user.stats.flush-interval:10s}")
+    public synchronized void flush() {
+        List<Delta> deltas = new ArrayList<>();
+        for (PendingStats stats : evicted) {
+            stats.drainInto(deltas);
+        }
+        evicted = new ArrayList<>();
+
+        for (PendingStats stats : pending.values()) {
+            if (stats.drainInto(deltas)) {
+                stats.idleFlushes = 0;
+            } else if (++stats.idleFlushes >= IDLE_FLUSHES_BEFORE_EVICTION && pending.remove(stats.email, stats)) {
+                evicted.add(stats);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+        long increments = 0;
+        for (Delta delta : deltas) {
+            Update update = new Update().set("updatedAt", now);
+            if (delta.quizzes() > 0) {
+                update.inc("quizCount", delta.quizzes());
+            }
+            if (delta.documents() > 0) {
+                update.inc("documentAnalysisCount", delta.documents());
+            }
+            if (delta.chats() > 0) {
+                update.inc("totalChats", delta.chats());
+            }
+            if (delta.lastLogin() != null) {
+                // $max keeps a newer login already written by another instance
+                update.max("lastLogin", delta.lastLogin());
+            }
+            bulk.updateOne(Query.query(Criteria.where("email").is(delta.email())), update);
+            increments += delta.quizzes() + delta.documents() + delta.chats();
+        }
+
+        try {
+            bulk.execute();
+            flushedIncrements.increment(increments);
+        } catch (BulkOperationException e) {
+            // The other updates of an unordered bulk were applied; re-queueing them would count them twice
+            failedFlushes.increment();
+            List<Delta> failed = new ArrayList<>();
+            for (BulkWriteError error : e.getErrors()) {
+                Delta delta = deltas.get(error.getIndex());
+                failed.add(delta);
+                increments -= delta.quizzes() + delta.documents() + delta.chats();
+            }
+            flushedIncrements.increment(increments);
+            System.out.println("User stats flush failed for " + failed.size() + " of " + deltas.size()
+                    + " users, retrying them next run: " + e.getMessage());
+            failed.forEach(this::requeue);
+        } catch (Exception e) {
+            failedFlushes.increment();
+            System.out.println("User stats flush failed, retrying " + deltas.size() + " users next run: " + e.getMessage());
+            deltas.forEach(this::requeue);
+        }
+    }
+
+    private void requeue(Delta delta) {
+        PendingStats stats = pending.computeIfAbsent(delta.email(), PendingStats::new);
+        stats.add("quiz", delta.quizzes());
+        stats.add("document", delta.documents());
+        stats.add("chat", delta.chats());
+        if (delta.lastLogin() != null) {
+            stats.loggedInAt(delta.lastLogin());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private record Delta(String email, long quizzes, long documents, long chats, LocalDateTime lastLogin) {
+    }
+
+    private static final class PendingStats {
+
+        private final String email;
+        private final LongAdder quizzes = new LongAdder();
+        private final LongAdder documents = new LongAdder();
+        private final LongAdder chats = new LongAdder();
+        private final AtomicReference<LocalDateTime> lastLogin = new AtomicReference<>();
+
+        // Only touched by the flushing thread
+        private int idleFlushes;
+
+        PendingStats(String email) {
+            this.email = email;
+        }
+
+        void add(String actionType, long amount) {
+            if (amount == 0) {
+                return;
+            }
+            switch (actionType) {
+                case "quiz" -> quizzes.add(amount);
+                case "document" -> documents.add(amount);
+                default -> chats.add(amount);
+            }
+        }
+
+        void loggedInAt(LocalDateTime time) {
+            lastLogin.accumulateAndGet(time, (current, next) -> current == null || next.isAfter(current) ? next : current);
+        }
+
+        // sumThenReset swaps each cell to zero, so concurrent increments land in this flush or the next
+        boolean drainInto(List<Delta> deltas) {
+            long quizCount = quizzes.sumThenReset();
+            long documentCount = documents.sumThenReset();
+            long chatCount = chats.sumThenReset();
+            LocalDateTime loginTime = lastLogin.getAndSet(null);
+            if (quizCount == 0 && documentCount == 0 && chatCount == 0 && loginTime == null) {
+                return false;
+            }
+            deltas.add(new Delta(email, quizCount, documentCount, chatCount, loginTime));
+            return true;
+        }
+    }
+}
@@ -47,6 +47,8 @@ document.addEventListener('DOMContentLoaded', () => {
 
     // State
     let currentUser = null;
+    let authTokens = null;
+    let refreshInFlight = null;
     let currentTool = 'home';
     let isStreaming = false;
     let currentQuiz = null;
@@ -119,14 +121,92 @@ document.addEventListener('DOMContentLoaded', () => {
         });
     }
 
-    function checkExistingSession() {
-        const savedUser = localStorage.getItem('currentUser');
-        if (savedUser) {
-            currentUser = JSON.parse(savedUser);
-            showChatApp();
+    async function checkExistingSession() {
+        const savedTokens = localStorage.getItem('authTokens');
+        if (!savedTokens) {
+            localStorage.removeItem('currentUser');
+            return;
+        }
+        authTokens = JSON.parse(savedTokens);
+
+        try {
+            // Verified from the token signature on the server; an expired access token is refreshed
+            const response = await authFetch(`${BASE_URL}/auth/check-session`);
+            const data = await response.json();
+            if (data.authenticated) {
+                currentUser = data.user;
+                localStorage.setItem('currentUser', JSON.stringify(currentUser));
+                showChatApp();
+            } else if (await refreshSession()) {
+                showChatApp();
+            } else {
+                clearSession();
+            }
+        } catch (error) {
+            console.error('Session check error:', error);
         }
     }
 
+    function saveSession(data) {
+        currentUser = data.user;
+        authTokens = { accessToken: data.accessToken, refreshToken: data.refreshToken };
+        localStorage.setItem('currentUser', JSON.stringify(currentUser));
+        localStorage.setItem('authTokens', JSON.stringify(authTokens));
+    }
+
+    function clearSession() {
+        currentUser = null;
+        authTokens = null;
+        localStorage.removeItem('currentUser');
+        localStorage.removeItem('authTokens');
+    }
+
+    // fetch with the access token; on a 401 the token is refreshed once and the request retried
+    async function authFetch(url, options = {}) {
+        const send = () => fetch(url, {
+            ...options,
+            headers: {
+                ...(options.headers || {}),
+                ...(authTokens ? { 'Authorization': `Bearer ${authTokens.accessToken}` } : {})
+            }
+        });
+
+        let response = await send();
+        if (response.status === 401 && authTokens && await refreshSession()) {
+            response = await send();
+        }
+        if (response.status === 401 && currentUser) {
+            clearSession();
+            showAuth();
+            showNotification('Your session has expired. Please sign in again.', 'error');
+        }
+        return response;
+    }
+
+    // Concurrent 401s share one refresh request
+    function refreshSession() {
+        if (!refreshInFlight) {
+            refreshInFlight = fetch(`${BASE_URL}/auth/refresh`, {
+                method: 'POST',
+                headers: {
+                    'Content-Type': 'application/json',
+                },
+                body: JSON.stringify({ refreshToken: authTokens.refreshToken })
+            })
+                .then(response => response.json())
+                .then(data => {
+                    if (!data.success) {
+                        return false;
+                    }
+                    saveSession(data);
+                    return true;
+                })
+                .catch(() => false)
+                .finally(() => { refreshInFlight = null; });
+        }
+        return refreshInFlight;
+    }
+
     // Auth Functions
     async function handleLogin(e) {
         e.preventDefault();
@@ -154,8 +234,7 @@ document.addEventListener('DOMContentLoaded', () => {
             const data = await response.json();
 
             if (data.success) {
-                currentUser = data.user;
-                localStorage.setItem('currentUser', JSON.stringify(currentUser));
+                saveSession(data);
                 showChatApp();
                 showNotification('Login successful!', 'success');
             } else {
@@ -233,8 +312,7 @@ document.addEventListener('DOMContentLoaded', () => {
     }
 
     function handleLogout() {
-        currentUser = null;
-        localStorage.removeItem('currentUser');
+        clearSession();
         showAuth();
         showNotification('Logged out successfully', 'info');
     }
@@ -369,7 +447,7 @@ async function generateQuiz() {
     generateQuizBtn.innerHTML = '<i class="fas fa-spinner fa-spin"></i> Generating...';
 
     try {
-        const response = await fetch(`${BASE_URL}/generate-quiz`, {
+        const response = await authFetch(`${BASE_URL}/generate-quiz`, {
             method: 'POST',
             headers: {
                 'Content-Type': 'application/json',
@@ -377,7 +455,6 @@ async function generateQuiz() {
             body: JSON.stringify({
                 topic: topic,
                 questionCount: count,
-                userEmail: currentUser.email,
                 difficulty: 'medium'
             })
         });
@@ -389,7 +466,11 @@ async function generateQuiz() {
             // ✅ USE REAL BACKEND DATA
             currentQuiz = parseRealQuizResponse(data.quiz, topic, count);
             displayQuizQuestions(currentQuiz);
-            showNotification(`Real AI Quiz generated on "${topic}"`, 'success');
+            if (data.partial) {
+                showNotification(`Generated ${data.quiz.questions.length} of ${data.requestedCount} questions on "${topic}"`, 'warning');
+            } else {
+                showNotification(`Real AI Quiz generated on "${topic}"`, 'success');
+            }
         } else {
             throw new Error(data.message || 'Failed to generate quiz');
         }
@@ -403,86 +484,21 @@ async function generateQuiz() {
     }
 }
 
+   // The server returns a validated quiz: questions with exactly 4 options, one marked correct
    function parseRealQuizResponse(quizData, topic, count) {
-       console.log('🔍 PARSING QUIZ DATA:', quizData);
-
-
-       if (typeof quizData.questions === 'string') {
-           return parseQuizFromText(quizData.questions, topic, count);
-       }
-
+       const questions = (quizData.questions || []).map((q, index) => ({
+           id: index + 1,
+           question: q.question,
+           options: q.options.map(option => option.text),
+           correctAnswer: q.options.findIndex(option => option.correct),
+           explanation: q.explanation,
+           type: 'multiple choice'
+       }));
 
        return {
-           topic: topic,
-           questions: quizData.questions || [],
-           totalQuestions: count
-       };
-   }
-
-   function parseQuizFromText(text, topic, count) {
-       const questions = [];
-       const lines = text.split('\n').filter(line => line.trim());
-
-       let currentQuestion = null;
-
-       for (let i = 0; i < lines.length; i++) {
-           const line = lines[i].trim();
-
-           if (line.match(/^(\d+\.|\*\*Question \d+:\*\*)/) ||
-               (line.includes('?') && !currentQuestion)) {
-
-               if (currentQuestion) {
-                   questions.push(currentQuestion);
-               }
-
-               currentQuestion = {
-                   id: questions.length + 1,
-                   question: line.replace(/^\d+\.\s*/, '')
-                                .replace(/\*\*Question \d+:\*\*\s*/, '')
-                                .replace(/\*\*/g, '')
-                                .trim(),
-                   options: [],
-                   correctAnswer: -1,
-                   type: 'multiple choice'
-               };
-           }
-
-           else if (line.match(/^[ABCD]\)/) && currentQuestion) {
-               const optionText = line.replace(/^[ABCD]\)\s*/, '').trim();
-               currentQuestion.options.push(optionText);
-           }
-
-           else if (line.toLowerCase().includes('correct:') && currentQuestion) {
-               const correctChar = line.split(':')[1].trim().toUpperCase();
-               currentQuestion.correctAnswer = 'ABCD'.indexOf(correctChar);
-           }
-
-           else if (currentQuestion && !line.match(/^[ABCD]\)/) &&
-                    !line.toLowerCase().includes('correct:') &&
-                    currentQuestion.options.length === 0) {
-               currentQuestion.question += ' ' + line.replace(/\*\*/g, '').trim();
-           }
-       }
-
-       if (currentQuestion) {
-           questions.push(currentQuestion);
-       }
-
-       questions.forEach(q => {
-           while (q.options.length < 4) {
-               q.options.push(`Option ${String.fromCharCode(65 + q.options.length)}`);
-           }
-           if (q.correctAnswer === -1) {
-               q.correctAnswer = 0;
-           }
-       });
-
-       console.log('✅ PARSED QUESTIONS:', questions);
-
-       return {
-           topic: topic,
-           questions: questions.slice(0, count),
-           totalQuestions: Math.min(questions.length, count)
+           topic: quizData.topic || topic,
+           questions: questions,
+           totalQuestions: questions.length
        };
    }
     function createMockQuiz(topic, count) {
@@ -571,7 +587,8 @@ async function generateQuiz() {
                 selected: selectedOption ? parseInt(selectedOption.value) : null,
                 correct: q.correctAnswer,
                 isCorrect: isCorrect,
-                options: q.options
+                options: q.options,
+                explanation: q.explanation
             });
         });
 
@@ -598,6 +615,7 @@ async function generateQuiz() {
                     <strong>Q${index + 1}:</strong> ${result.question}<br>
                     <small>Your answer: ${userAnswer} - ${result.options[result.selected] || 'Not answered'}</small><br>
                     <small>Correct answer: ${correctAnswer} - ${result.options[result.correct]}</small>
+                    ${result.explanation ? `<br><small>${result.explanation}</small>` : ''}
                 </div>
             `;
         });
@@ -661,8 +679,9 @@ async function generateQuiz() {
         }
 
 
-        if (file.size > 5 * 1024 * 1024) {
-            showNotification('File size must be less than 5MB', 'error');
+        // Upper bound only; the server applies the user's own limit from their preferences
+        if (file.size > 20 * 1024 * 1024) {
+            showNotification('File size must be less than 20MB', 'error');
             return;
         }
 
@@ -708,7 +727,6 @@ async function generateQuiz() {
        try {
            const formData = new FormData();
            formData.append('file', selectedFile);
-           formData.append('userEmail', currentUser.email);
 
            const instructions = analysisInstructions.value.trim();
            if (instructions) {
@@ -717,7 +735,7 @@ async function generateQuiz() {
 
            console.log('Sending document for REAL AI analysis...');
 
-           const response = await fetch(`${BASE_URL}/analyze-document`, {
+           const response = await authFetch(`${BASE_URL}/analyze-document`, {
                method: 'POST',
                body: formData
            });
@@ -810,29 +828,55 @@ async function generateQuiz() {
         const botBubble = appendMessage('<div class="typing-indicator"><span></span><span></span><span></span></div>', 'bot');
 
         try {
-            const response = await fetch(`${BASE_URL}/chat`, {
+            const response = await authFetch(`${BASE_URL}/chat/stream`, {
                 method: 'POST',
                 headers: {
                     'Content-Type': 'application/json',
+                    'Accept': 'text/event-stream'
                 },
                 body: JSON.stringify({
                     message: userPrompt,
-                    userEmail: currentUser.email,
                     queryType: currentTool
                 })
             });
 
-            const data = await response.json();
+            if (!response.ok || !response.body) {
+                throw new Error(`Streaming request failed with status ${response.status}`);
+            }
 
-            if (data.success) {
-                botBubble.innerHTML = formatResponse(data.response);
-                showNotification('Response received', 'success');
-            } else {
-                throw new Error(data.message);
+            let fullText = '';
+            await readEventStream(response, (event, data) => {
+                if (event === 'chunk') {
+                    fullText += data.text;
+                    botBubble.innerHTML = formatResponse(fullText);
+                    scrollToBottom();
+                } else if (event === 'error') {
+                    const streamError = new Error(data.message);
+                    streamError.retryAfter = data.retryAfter;
+                    streamError.fromServer = true;
+                    throw streamError;
+                }
+            });
+
+            if (!fullText) {
+                throw new Error('Empty response');
             }
+            showNotification('Response received', 'success');
 
         } catch (error) {
             console.error('API Error:', error);
+            if (error.retryAfter) {
+                // Server is shedding load; tell the user when to retry instead of faking an answer
+                botBubble.innerHTML = formatResponse(error.message);
+                showNotification(`AI service busy, retry in ${error.retryAfter}s`, 'warning');
+                return;
+            }
+            if (error.fromServer) {
+                // The server reached the AI service but the call failed; show its explanation
+                botBubble.innerHTML = formatResponse(error.message);
+                showNotification('The AI service could not answer', 'error');
+                return;
+            }
             // Fallback to mock response
             const mockResponse = generateMockResponse(userPrompt, currentTool);
             botBubble.innerHTML = formatResponse(mockResponse);
@@ -845,6 +889,37 @@ async function generateQuiz() {
         }
     }
 
+    // Minimal Server-Sent Events reader for POST requests (EventSource only supports GET)
+    async function readEventStream(response, onEvent) {
+        const reader = response.body.getReader();
+        const decoder = new TextDecoder();
+        let buffer = '';
+
+        while (true) {
+            const { done, value } = await reader.read();
+            if (done) break;
+
+            buffer += decoder.decode(value, { stream: true });
+            const events = buffer.split(/\r?\n\r?\n/);
+            buffer = events.pop();
+
+            for (const rawEvent of events) {
+                let event = 'message';
+                const dataLines = [];
+                rawEvent.split(/\r?\n/).forEach(line => {
+                    if (line.startsWith('event:')) {
+                        event = line.slice(6).trim();
+                    } else if (line.startsWith('data:')) {
+                        dataLines.push(line.slice(5));
+                    }
+                });
+                if (dataLines.length > 0) {
+                    onEvent(event, JSON.parse(dataLines.join('\n')));
+                }
+            }
+        }
+    }
+
     function generateMockResponse(prompt, toolType) {
         const responses = {
             general: `I understand you're asking about: "${prompt}". This is a mock response since the AI service is currently unavailable. In a real scenario, I would provide a detailed, helpful answer to your question.`,
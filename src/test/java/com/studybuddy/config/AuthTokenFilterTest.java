@@ -0,0 +1,129 @@
+package com.studybuddy.config;
+
+import com.studybuddy.service.AuthTokenService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuthTokenFilterTest {
+
+    private final AuthTokenService tokenService = tokenService();
+    private final AuthTokenFilter filter = new AuthTokenFilter(tokenService);
+
+    @Test
+    void validTokenExposesUserAsRequestAttributes() throws Exception {
+        MockHttpServletRequest request = request("POST", "/api/chat");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + tokenService.issue("ann@example.com", "Ann").accessToken());
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+        assertEquals("ann@example.com", request.getAttribute(AuthTokenFilter.USER_EMAIL));
+        assertEquals("Ann", request.getAttribute(AuthTokenFilter.USER_NAME));
+    }
+
+    @Test
+    void missingTokenOnProtectedPathIsRejected() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request("POST", "/api/chat"), response, chain);
+
+        assertNull(chain.getRequest());
+        assertEquals(401, response.getStatus());
+        assertEquals("Bearer", response.getHeader(HttpHeaders.WWW_AUTHENTICATE));
+        assertTrue(response.getContentAsString().contains("\"success\":false"));
+    }
+
+    @Test
+    void invalidTokenOnProtectedPathIsRejected() throws Exception {
+        MockHttpServletRequest request = request("POST", "/api/generate-quiz");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + tokenService.issue("ann@example.com", "Ann").refreshToken());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, response, chain);
+
+        assertNull(chain.getRequest());
+        assertEquals(401, response.getStatus());
+        assertEquals("Bearer error=\"invalid_token\"", response.getHeader(HttpHeaders.WWW_AUTHENTICATE));
+    }
+
+    @Test
+    void rejectionAllowsCrossOriginClientsToReadIt() throws Exception {
+        MockHttpServletRequest request = request("POST", "/api/chat");
+        request.addHeader(HttpHeaders.ORIGIN, "http://localhost:3000");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain());
+
+        assertEquals("*", response.getHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN));
+    }
+
+    @Test
+    void publicPathsPassWithoutToken() throws Exception {
+        for (String path : new String[]{"/api/auth/login", "/api/auth/register", "/api/auth/refresh",
+                "/api/auth/logout", "/api/auth/check-session", "/api/health"}) {
+            MockFilterChain chain = new MockFilterChain();
+            MockHttpServletResponse response = new MockHttpServletResponse();
+
+            filter.doFilter(request("POST", path), response, chain);
+
+            assertNotNull(chain.getRequest(), path);
+            assertEquals(200, response.getStatus(), path);
+        }
+    }
+
+    @Test
+    void publicPathWithInvalidTokenPassesUnauthenticated() throws Exception {
+        MockHttpServletRequest request = request("GET", "/api/auth/check-session");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer not-a-token");
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+        assertNull(request.getAttribute(AuthTokenFilter.USER_EMAIL));
+    }
+
+    @Test
+    void corsPreflightPassesWithoutToken() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request("OPTIONS", "/api/chat"), new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    void pathsOutsideApiAreNotFiltered() throws Exception {
+        for (String path : new String[]{"/", "/app.js", "/actuator/health"}) {
+            MockFilterChain chain = new MockFilterChain();
+
+            filter.doFilter(request("GET", path), new MockHttpServletResponse(), chain);
+
+            assertNotNull(chain.getRequest(), path);
+        }
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setRequestURI(path);
+        return request;
+    }
+
+    private static AuthTokenService tokenService() {
+        AuthTokenProperties properties = new AuthTokenProperties();
+        properties.setSecret("0123456789abcdef0123456789abcdef");
+        return new AuthTokenService(properties, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,80 @@
+package com.studybuddy.controller;
+
+import com.studybuddy.service.AuthService;
+import com.studybuddy.service.AuthTokenService;
+import com.studybuddy.service.PasswordHashingBusyException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class AuthControllerTest {
+
+    @Mock
+    private AuthService authService;
+
+    @Mock
+    private AuthTokenService tokenService;
+
+    @InjectMocks
+    private AuthController authController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(authController).build();
+    }
+
+    @Test
+    void loginRejectedByHashingQueueReturns503WithRetryAfter() throws Exception {
+        when(authService.loginUser(anyString(), anyString())).thenThrow(new PasswordHashingBusyException(Duration.ofSeconds(3)));
+
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"ann@example.com\",\"password\":\"secret1\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "3"))
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.retryAfter").value(3));
+    }
+
+    @Test
+    void registrationRejectedByHashingQueueReturns503WithRetryAfter() throws Exception {
+        when(authService.registerUser(anyString(), anyString(), anyString()))
+                .thenThrow(new PasswordHashingBusyException(Duration.ofSeconds(2)));
+
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Ann\",\"email\":\"ann@example.com\",\"password\":\"secret1\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    @Test
+    void wrongPasswordStillReturns400() throws Exception {
+        when(authService.loginUser(anyString(), anyString())).thenReturn("Invalid password");
+
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"ann@example.com\",\"password\":\"wrong1\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid password"));
+    }
+}
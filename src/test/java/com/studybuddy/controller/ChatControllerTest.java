@@ -0,0 +1,150 @@
+package com.studybuddy.controller;
+
+import com.studybuddy.config.AuthTokenFilter;
+import com.studybuddy.service.AuthService;
+import com.studybuddy.service.GeminiApiException;
+import com.studybuddy.service.GeminiFlashService;
+import com.studybuddy.service.LlmOverloadedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class ChatControllerTest {
+
+    private static final String USER = "ann@example.com";
+
+    @Mock
+    private GeminiFlashService geminiService;
+
+    @Mock
+    private AuthService authService;
+
+    @InjectMocks
+    private ChatController chatController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(chatController).build();
+    }
+
+    @Test
+    void answeredChatIsCounted() throws Exception {
+        when(geminiService.generateChatResponse(anyString(), eq("general"))).thenReturn(Mono.just("Plants make sugar."));
+
+        chat("{\"message\":\"What is photosynthesis?\",\"queryType\":\"general\"}")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.response").value("Plants make sugar."));
+        verify(authService).incrementUserStats(USER, "chat");
+    }
+
+    @Test
+    void missingQueryTypeIsAnsweredAsGeneralChat() throws Exception {
+        when(geminiService.generateChatResponse(eq("Hello"), eq("general"))).thenReturn(Mono.just("Hi!"));
+
+        chat("{\"message\":\"Hello\"}")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true));
+    }
+
+    @Test
+    void failedCallKeepsErrorContractAndIsNotCounted() throws Exception {
+        when(geminiService.generateChatResponse(anyString(), eq("general")))
+                .thenReturn(Mono.error(new IllegalStateException("connection reset")));
+
+        chat("{\"message\":\"Hello\",\"queryType\":\"general\"}")
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.message").value("Sorry, I encountered an error. Please try again later."));
+        verify(authService, never()).incrementUserStats(anyString(), anyString());
+    }
+
+    @Test
+    void geminiApiErrorMessageIsShownToTheUser() throws Exception {
+        when(geminiService.generateChatResponse(anyString(), eq("general")))
+                .thenReturn(Mono.error(new GeminiApiException("The AI declined to answer this request.")));
+
+        chat("{\"message\":\"Hello\",\"queryType\":\"general\"}")
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.message").value("The AI declined to answer this request."));
+        verify(authService, never()).incrementUserStats(anyString(), anyString());
+    }
+
+    @Test
+    void synchronousFailureKeepsErrorContract() throws Exception {
+        when(geminiService.generateChatResponse(anyString(), eq("general"))).thenThrow(new IllegalStateException("bug"));
+
+        chat("{\"message\":\"Hello\",\"queryType\":\"general\"}")
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    @Test
+    void overloadReturns503WithRetryAfter() throws Exception {
+        when(geminiService.generateChatResponse(anyString(), eq("general")))
+                .thenReturn(Mono.error(new LlmOverloadedException("chat", Duration.ofSeconds(5))));
+
+        chat("{\"message\":\"Hello\",\"queryType\":\"general\"}")
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "5"))
+                .andExpect(jsonPath("$.retryAfter").value(5));
+    }
+
+    @Test
+    void failedStreamSendsErrorEventAndIsNotCounted() throws Exception {
+        when(geminiService.streamChatResponse(anyString(), eq("general")))
+                .thenReturn(Flux.just("Plants").concatWith(Flux.error(new IllegalStateException("reset"))));
+
+        MvcResult result = mockMvc.perform(post("/api/chat/stream")
+                        .requestAttr(AuthTokenFilter.USER_EMAIL, USER)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .content("{\"message\":\"Hello\",\"queryType\":\"general\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(content().string(containsString("event:error")))
+                .andExpect(content().string(containsString("Sorry, I encountered an error")));
+        verify(authService, never()).incrementUserStats(anyString(), anyString());
+    }
+
+    private ResultActions chat(String body) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/chat")
+                        .requestAttr(AuthTokenFilter.USER_EMAIL, USER)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+}
@@ -0,0 +1,61 @@
+package com.studybuddy.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Collects request latencies and status codes of one endpoint. Status -1 marks requests that
+ * failed without a response. 503s are counted as shed load rather than errors, since that is
+ * how the LLM bulkheads and circuit breaker reject excess requests.
+ */
+final class LatencyRecorder {
+
+    private long[] latencies = new long[4096];
+    private int count;
+    private int errors;
+    private int shed;
+    private final Map<Integer, Integer> statuses = new TreeMap<>();
+
+    synchronized void record(long latencyNanos, int status) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyNanos;
+        statuses.merge(status, 1, Integer::sum);
+        if (status == 503) {
+            shed++;
+        } else if (status < 200 || status >= 300) {
+            errors++;
+        }
+    }
+
+    synchronized int count() {
+        return count;
+    }
+
+    synchronized double errorRate() {
+        return count == 0 ? 0 : (double) errors / count;
+    }
+
+    synchronized double shedRate() {
+        return count == 0 ? 0 : (double) shed / count;
+    }
+
+    synchronized Map<Integer, Integer> statuses() {
+        return new TreeMap<>(statuses);
+    }
+
+    /**
+     * Nearest-rank percentile in milliseconds, e.g. {@code percentileMillis(0.95)}.
+     */
+    synchronized double percentileMillis(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile * count);
+        return sorted[Math.max(0, rank - 1)] / 1_000_000.0;
+    }
+}
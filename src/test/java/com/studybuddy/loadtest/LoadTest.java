@@ -0,0 +1,270 @@
+package com.studybuddy.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Boots the application against an in-memory MongoDB and a mock Gemini endpoint, drives login,
+ * chat, quiz and document analysis with the configured mix, and fails when an endpoint misses
+ * its latency or error-rate SLO. Run with {@code mvn -Ploadtest test}; settings live in
+ * {@code loadtest.properties}.
+ */
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class LoadTest {
+
+    private static final LoadTestSettings settings = LoadTestSettings.load();
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final String PASSWORD = "loadtest-password";
+    private static final String BOUNDARY = "loadtest-boundary";
+
+    private static MongoServer mongoServer;
+    private static MockGeminiServer geminiServer;
+
+    @LocalServerPort
+    private int port;
+
+    private HttpClient client;
+    private String documentText;
+    private final List<String> accessTokens = new ArrayList<>();
+
+    @DynamicPropertySource
+    static void backends(DynamicPropertyRegistry registry) throws IOException {
+        mongoServer = new MongoServer(new MemoryBackend());
+        InetSocketAddress mongoAddress = mongoServer.bind();
+        geminiServer = new MockGeminiServer(settings);
+        geminiServer.start();
+
+        registry.add("spring.data.mongodb.uri",
+                () -> "mongodb://" + mongoAddress.getHostString() + ":" + mongoAddress.getPort() + "/loadtest");
+        registry.add("gemini.api.base-url", geminiServer::baseUrl);
+        registry.add("gemini.api.key", () -> "loadtest");
+        registry.add("auth.password.bcrypt-strength", () -> settings.intValue("bcrypt-strength"));
+    }
+
+    @AfterAll
+    static void stopBackends() {
+        geminiServer.stop();
+        mongoServer.shutdownNow();
+    }
+
+    @Test
+    void endpointsMeetLatencySlos() throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            client = HttpClient.newBuilder()
+                    .executor(executor)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            documentText = documentText(settings.intValue("document-chars"));
+            registerUsers();
+
+            System.out.println("Load test warm-up for " + settings.duration("warmup"));
+            run(settings.duration("warmup"));
+
+            Duration duration = settings.duration("duration");
+            System.out.println("Load test running for " + duration + " with " + settings.intValue("concurrency") + " workers");
+            Map<String, LatencyRecorder> results = run(duration);
+
+            List<String> violations = report(results, duration);
+            assertTrue(violations.isEmpty(), "SLO violations:\n" + String.join("\n", violations));
+        }
+    }
+
+    // Each user signs in once up front; chat, quiz and document requests then carry that user's access token
+    private void registerUsers() throws Exception {
+        for (int i = 0; i < settings.intValue("users"); i++) {
+            Map<String, String> body = Map.of("name", "Load Test " + i, "email", email(i), "password", PASSWORD);
+            HttpResponse<Void> response = client.send(json("/api/auth/register", body), HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Registering " + email(i) + " failed with status " + response.statusCode());
+            }
+
+            HttpResponse<byte[]> login = client.send(json("/api/auth/login", Map.of("email", email(i), "password", PASSWORD)),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            if (login.statusCode() != 200) {
+                throw new IllegalStateException("Signing in " + email(i) + " failed with status " + login.statusCode());
+            }
+            accessTokens.add(objectMapper.readTree(login.body()).path("accessToken").asText());
+        }
+    }
+
+    private Map<String, LatencyRecorder> run(Duration duration) throws InterruptedException {
+        Map<String, Integer> mix = settings.mix();
+        Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+        mix.keySet().forEach(endpoint -> recorders.put(endpoint, new LatencyRecorder()));
+        int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        List<Thread> workers = new ArrayList<>();
+        for (int worker = 0; worker < settings.intValue("concurrency"); worker++) {
+            Random random = new Random(settings.longValue("seed") + worker);
+            workers.add(Thread.ofVirtual().start(() -> {
+                while (System.nanoTime() < deadline) {
+                    String endpoint = pick(mix, totalWeight, random);
+                    HttpRequest request = requestFor(endpoint, random);
+                    long start = System.nanoTime();
+                    int status;
+                    try {
+                        status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    } catch (IOException e) {
+                        status = -1;
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    recorders.get(endpoint).record(System.nanoTime() - start, status);
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return recorders;
+    }
+
+    private List<String> report(Map<String, LatencyRecorder> results, Duration duration) {
+        double seconds = duration.toMillis() / 1000.0;
+        double maxErrorRate = settings.doubleValue("slo.max-error-rate");
+        double maxShedRate = settings.doubleValue("slo.max-shed-rate");
+        List<String> violations = new ArrayList<>();
+
+        System.out.println();
+        System.out.printf("%-10s %8s %9s %9s %9s %9s %8s %8s  %s%n",
+                "endpoint", "requests", "req/s", "p50 ms", "p95 ms", "p99 ms", "errors", "shed", "statuses");
+        for (Map.Entry<String, LatencyRecorder> entry : results.entrySet()) {
+            String endpoint = entry.getKey();
+            LatencyRecorder recorder = entry.getValue();
+            double p95 = recorder.percentileMillis(0.95);
+            double p99 = recorder.percentileMillis(0.99);
+            System.out.printf("%-10s %8d %9.1f %9.1f %9.1f %9.1f %7.2f%% %7.2f%%  %s%n",
+                    endpoint, recorder.count(), recorder.count() / seconds, recorder.percentileMillis(0.50),
+                    p95, p99, recorder.errorRate() * 100, recorder.shedRate() * 100, recorder.statuses());
+
+            checkSlo(violations, endpoint, "p95", p95);
+            checkSlo(violations, endpoint, "p99", p99);
+            if (recorder.errorRate() > maxErrorRate) {
+                violations.add(String.format("%s error rate %.2f%% > %.2f%%", endpoint, recorder.errorRate() * 100, maxErrorRate * 100));
+            }
+            if (recorder.shedRate() > maxShedRate) {
+                violations.add(String.format("%s shed rate %.2f%% > %.2f%%", endpoint, recorder.shedRate() * 100, maxShedRate * 100));
+            }
+        }
+        System.out.println();
+        return violations;
+    }
+
+    private void checkSlo(List<String> violations, String endpoint, String percentile, double actualMillis) {
+        long slo = settings.sloMillis(endpoint, percentile);
+        if (slo >= 0 && actualMillis > slo) {
+            violations.add(String.format("%s %s %.1f ms > %d ms", endpoint, percentile, actualMillis, slo));
+        }
+    }
+
+    private String pick(Map<String, Integer> mix, int totalWeight, Random random) {
+        int roll = random.nextInt(totalWeight);
+        for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty request mix");
+    }
+
+    private HttpRequest requestFor(String endpoint, Random random) {
+        int user = random.nextInt(settings.intValue("users"));
+        String token = accessTokens.get(user);
+        int prompt = random.nextInt(settings.intValue("distinct-prompts"));
+        return switch (endpoint) {
+            case "login" -> json("/api/auth/login", Map.of("email", email(user), "password", PASSWORD));
+            case "chat" -> json("/api/chat", token, Map.of(
+                    "message", "Can you explain study topic number " + prompt + " with an example?",
+                    "queryType", "general"));
+            case "quiz" -> json("/api/generate-quiz", token, Map.of(
+                    "topic", "Study topic " + prompt,
+                    "questionCount", "5",
+                    "difficulty", "medium"));
+            case "document" -> HttpRequest.newBuilder(uri("/api/analyze-document"))
+                    .timeout(Duration.ofSeconds(120))
+                    .header("Authorization", "Bearer " + token)
+                    .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(multipartDocument(prompt)))
+                    .build();
+            default -> throw new IllegalArgumentException("Unknown endpoint " + endpoint);
+        };
+    }
+
+    private HttpRequest json(String path, Map<String, String> body) {
+        return json(path, null, body);
+    }
+
+    private HttpRequest json(String path, String accessToken, Map<String, String> body) {
+        try {
+            HttpRequest.Builder request = HttpRequest.newBuilder(uri(path))
+                    .timeout(Duration.ofSeconds(120))
+                    .header("Content-Type", "application/json");
+            if (accessToken != null) {
+                request.header("Authorization", "Bearer " + accessToken);
+            }
+            return request.POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String documentText(int chars) {
+        StringBuilder text = new StringBuilder(chars);
+        while (text.length() < chars) {
+            text.append("Lecture notes on data structures: arrays, linked lists, trees and hash tables. ");
+        }
+        return text.substring(0, chars);
+    }
+
+    // The instructions vary with the prompt number so documents are not all served from the response cache
+    private byte[] multipartDocument(int prompt) {
+        String body = "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"instructions\"\r\n\r\n"
+                + "Summarize the key points of section " + prompt + " and suggest improvements\r\n"
+                + "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"notes.txt\"\r\n"
+                + "Content-Type: text/plain\r\n\r\n"
+                + documentText + "\r\n"
+                + "--" + BOUNDARY + "--\r\n";
+        return body.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static String email(int user) {
+        return "loadtest" + user + "@example.com";
+    }
+}
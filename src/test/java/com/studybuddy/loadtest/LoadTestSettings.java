@@ -0,0 +1,86 @@
+package com.studybuddy.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Load test settings from {@code loadtest.properties}, overridable with system properties.
+ */
+final class LoadTestSettings {
+
+    static final List<String> ENDPOINTS = List.of("login", "chat", "quiz", "document");
+
+    private final Properties properties;
+
+    private LoadTestSettings(Properties properties) {
+        this.properties = properties;
+    }
+
+    static LoadTestSettings load() {
+        Properties properties = new Properties();
+        try (InputStream in = LoadTestSettings.class.getResourceAsStream("/loadtest.properties")) {
+            if (in != null) {
+                properties.load(in);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        System.getProperties().forEach((key, value) -> {
+            if (key.toString().startsWith("loadtest.")) {
+                properties.put(key, value);
+            }
+        });
+        return new LoadTestSettings(properties);
+    }
+
+    Duration duration(String key) {
+        return DurationStyle.detectAndParse(get(key));
+    }
+
+    int intValue(String key) {
+        return Integer.parseInt(get(key));
+    }
+
+    long longValue(String key) {
+        return Long.parseLong(get(key));
+    }
+
+    double doubleValue(String key) {
+        return Double.parseDouble(get(key));
+    }
+
+    Map<String, Integer> mix() {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String endpoint : ENDPOINTS) {
+            int weight = Integer.parseInt(properties.getProperty("loadtest.mix." + endpoint, "0").trim());
+            if (weight > 0) {
+                mix.put(endpoint, weight);
+            }
+        }
+        return mix;
+    }
+
+    /**
+     * SLO for a latency percentile of an endpoint in milliseconds, or -1 when none is set.
+     */
+    long sloMillis(String endpoint, String percentile) {
+        String value = properties.getProperty("loadtest.slo." + endpoint + "." + percentile);
+        return value == null ? -1 : Long.parseLong(value.trim());
+    }
+
+    private String get(String key) {
+        String value = properties.getProperty("loadtest." + key);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing load test setting loadtest." + key);
+        }
+        return value.trim();
+    }
+}
@@ -0,0 +1,152 @@
+package com.studybuddy.loadtest;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local stand-in for the Gemini generateContent and streamGenerateContent endpoints. Replies
+ * after a log-normal delay fitted to the configured median and p99, and fails a share of
+ * calls with 503 like an overloaded upstream.
+ */
+final class MockGeminiServer {
+
+    private static final double Z_99 = 2.326;
+
+    private static final Pattern QUESTION_COUNT = Pattern.compile("Generate a (\\d+)-question");
+
+    private final double medianMillis;
+    private final double sigma;
+    private final double errorRate;
+    private final int replyChars;
+    private final int streamChunks;
+    private final Random random;
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    MockGeminiServer(LoadTestSettings settings) {
+        this.medianMillis = Math.max(1, settings.duration("gemini.latency-median").toMillis());
+        double p99Millis = Math.max(medianMillis, settings.duration("gemini.latency-p99").toMillis());
+        this.sigma = Math.log(p99Millis / medianMillis) / Z_99;
+        this.errorRate = settings.doubleValue("gemini.error-rate");
+        this.replyChars = settings.intValue("gemini.reply-chars");
+        this.streamChunks = settings.intValue("gemini.stream-chunks");
+        this.random = new Random(settings.longValue("seed"));
+    }
+
+    void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/v1beta/models/", this::handle);
+        server.start();
+    }
+
+    void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String prompt = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            long delayMillis;
+            boolean fail;
+            synchronized (random) {
+                delayMillis = Math.round(medianMillis * Math.exp(sigma * random.nextGaussian()));
+                fail = random.nextDouble() < errorRate;
+            }
+            Thread.sleep(delayMillis);
+
+            if (fail) {
+                send(exchange, 503, "application/json", "{\"error\":{\"code\":503,\"message\":\"The model is overloaded.\"}}");
+                return;
+            }
+
+            String text = replyFor(prompt);
+            if (exchange.getRequestURI().getPath().contains(":streamGenerateContent")) {
+                stream(exchange, text);
+            } else {
+                send(exchange, 200, "application/json", candidate(text, true));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void stream(HttpExchange exchange, String text) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        int chunkSize = Math.max(1, text.length() / streamChunks);
+        for (int start = 0; start < text.length(); start += chunkSize) {
+            int end = Math.min(text.length(), start + chunkSize);
+            String event = "data: " + candidate(text.substring(start, end), end == text.length()) + "\r\n\r\n";
+            out.write(event.getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        }
+    }
+
+    private void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private String candidate(String text, boolean last) {
+        String escaped = new String(JsonStringEncoder.getInstance().quoteAsString(text));
+        String finish = last ? ",\"finishReason\":\"STOP\"" : "";
+        return "{\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"" + escaped + "\"}],\"role\":\"model\"}" + finish + "}],"
+                + "\"usageMetadata\":{\"promptTokenCount\":500,\"candidatesTokenCount\":" + text.length() / 4
+                + ",\"totalTokenCount\":" + (500 + text.length() / 4) + "}}";
+    }
+
+    private String replyFor(String requestBody) {
+        Matcher matcher = QUESTION_COUNT.matcher(requestBody);
+        if (matcher.find() && requestBody.contains("\"responseSchema\"")) {
+            StringBuilder quiz = new StringBuilder("{\"questions\":[");
+            int count = Integer.parseInt(matcher.group(1));
+            for (int i = 1; i <= count; i++) {
+                quiz.append(i == 1 ? "" : ",")
+                        .append("{\"question\":\"What is the main idea of point ").append(i).append("?\",")
+                        .append("\"options\":[\"The first option\",\"The second option\",\"The third option\",\"The fourth option\"],")
+                        .append("\"correctIndex\":").append(i % 4)
+                        .append(",\"explanation\":\"Point ").append(i).append(" is explained in the notes.\"}");
+            }
+            return quiz.append("]}").toString();
+        }
+        if (matcher.find(0)) {
+            StringBuilder quiz = new StringBuilder();
+            int count = Integer.parseInt(matcher.group(1));
+            for (int i = 1; i <= count; i++) {
+                quiz.append("Question: What is the main idea of point ").append(i).append("?\n")
+                        .append("A) The first option\nB) The second option\nC) The third option\nD) The fourth option\n")
+                        .append("Correct: ").append((char) ('A' + i % 4)).append("\n\n");
+            }
+            return quiz.toString().trim();
+        }
+        StringBuilder text = new StringBuilder(replyChars);
+        while (text.length() < replyChars) {
+            text.append("This is a mock answer from the local Gemini stand-in. ");
+        }
+        return text.substring(0, replyChars);
+    }
+}
@@ -0,0 +1,98 @@
+package com.studybuddy.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long THRESHOLD = 1_000_000;
+
+    @Test
+    void rejectsOverLimitWithoutWaiting() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, THRESHOLD, 0.9);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+
+        limiter.releaseWithoutSample();
+
+        assertEquals(2, limiter.getLimit());
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void growsWhileSaturatedAndFast() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 20, THRESHOLD, 0.9);
+
+        // About one full window of fast calls at the limit adds one permit
+        for (int i = 0; i < 11; i++) {
+            fill(limiter);
+            limiter.release(0, false);
+        }
+
+        assertEquals(11, limiter.getLimit());
+    }
+
+    @Test
+    void doesNotGrowWhenUnderused() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 20, THRESHOLD, 0.9);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.release(0, false);
+        }
+
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    void backsOffOnSlowOrDroppedCalls() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 20, THRESHOLD, 0.9);
+
+        limiter.tryAcquire();
+        limiter.release(THRESHOLD + 1, false);
+        assertEquals(9, limiter.getLimit());
+
+        limiter.tryAcquire();
+        limiter.release(0, true);
+        assertEquals(8, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void staysWithinFloorAndCeiling() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(5, 2, 8, THRESHOLD, 0.5);
+
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire();
+            limiter.release(0, true);
+        }
+        assertEquals(2, limiter.getLimit());
+        // Even at the floor one call can still go through
+        assertTrue(limiter.tryAcquire());
+        limiter.releaseWithoutSample();
+
+        for (int i = 0; i < 200; i++) {
+            fill(limiter);
+            limiter.release(0, false);
+        }
+        assertEquals(8, limiter.getLimit());
+    }
+
+    @Test
+    void clampsInitialLimit() {
+        assertEquals(3, new AdaptiveConcurrencyLimiter(1, 3, 10, THRESHOLD, 0.9).getLimit());
+        assertEquals(10, new AdaptiveConcurrencyLimiter(50, 3, 10, THRESHOLD, 0.9).getLimit());
+    }
+
+    private void fill(AdaptiveConcurrencyLimiter limiter) {
+        while (limiter.tryAcquire()) {
+            // acquire up to the current limit
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.studybuddy.service;
+
+import com.studybuddy.config.PasswordHashingProperties;
+import com.studybuddy.entity.User;
+import com.studybuddy.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AuthServiceTest {
+
+    private static final String EMAIL = "ann@example.com";
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserStatsAggregator userStatsAggregator;
+
+    @Mock
+    private UserCache userCache;
+
+    @InjectMocks
+    private AuthService authService;
+
+    private PasswordHasher passwordHasher;
+
+    @BeforeEach
+    void setUp() {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setBcryptStrength(5);
+        passwordHasher = new PasswordHasher(properties, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(authService, "passwordHasher", passwordHasher);
+    }
+
+    @AfterEach
+    void shutdown() {
+        passwordHasher.shutdown();
+    }
+
+    @Test
+    void loginUpgradesLegacyPlaintextPassword() {
+        when(userRepository.findLoginByEmail(EMAIL)).thenReturn(Optional.of(new User("Ann", EMAIL, "secret1")));
+
+        assertEquals("Login successful - Welcome, Ann", authService.loginUser(EMAIL, "secret1"));
+
+        ArgumentCaptor<String> stored = ArgumentCaptor.forClass(String.class);
+        verify(userRepository).updatePassword(eq(EMAIL), stored.capture(), any(LocalDateTime.class));
+        assertTrue(stored.getValue().startsWith("$2a$05$"));
+        assertTrue(passwordHasher.matches("secret1", stored.getValue()));
+        verify(userCache).invalidate(EMAIL);
+        verify(userStatsAggregator).recordLogin(EMAIL);
+    }
+
+    @Test
+    void loginUpgradesHashWithLowerCost() {
+        PasswordHashingProperties weaker = new PasswordHashingProperties();
+        weaker.setBcryptStrength(4);
+        PasswordHasher weakHasher = new PasswordHasher(weaker, new SimpleMeterRegistry());
+        String weakHash = weakHasher.hash("secret1");
+        weakHasher.shutdown();
+        when(userRepository.findLoginByEmail(EMAIL)).thenReturn(Optional.of(new User("Ann", EMAIL, weakHash)));
+
+        authService.loginUser(EMAIL, "secret1");
+
+        verify(userRepository).updatePassword(eq(EMAIL), anyString(), any(LocalDateTime.class));
+    }
+
+    @Test
+    void loginKeepsCurrentHash() {
+        User user = new User("Ann", EMAIL, passwordHasher.hash("secret1"));
+        when(userRepository.findLoginByEmail(EMAIL)).thenReturn(Optional.of(user));
+
+        assertEquals("Login successful - Welcome, Ann", authService.loginUser(EMAIL, "secret1"));
+
+        verify(userRepository, never()).updatePassword(anyString(), anyString(), any());
+    }
+
+    @Test
+    void failedLoginDoesNotTouchStoredPassword() {
+        when(userRepository.findLoginByEmail(EMAIL)).thenReturn(Optional.of(new User("Ann", EMAIL, "secret1")));
+
+        assertEquals("Invalid password", authService.loginUser(EMAIL, "wrong-password"));
+
+        verify(userRepository, never()).updatePassword(anyString(), anyString(), any());
+        verify(userStatsAggregator, never()).recordLogin(anyString());
+    }
+}
@@ -0,0 +1,174 @@
+package com.studybuddy.service;
+
+import com.studybuddy.config.AuthTokenProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AuthTokenServiceTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void issuedAccessTokenVerifies() {
+        AuthTokenService service = service(properties());
+        AuthTokenService.TokenPair tokens = service.issue("ann@example.com", "Ann");
+
+        AuthTokenService.TokenClaims claims = service.verifyAccess(tokens.accessToken());
+
+        assertEquals("ann@example.com", claims.email());
+        assertEquals("Ann", claims.name());
+        assertEquals(AuthTokenService.ACCESS, claims.type());
+    }
+
+    @Test
+    void rejectsTamperedSignature() {
+        AuthTokenService service = service(properties());
+        String token = service.issue("ann@example.com", "Ann").accessToken();
+        // The first signature character is all data bits; the last one also carries ignored padding bits
+        int first = token.lastIndexOf('.') + 1;
+        String tampered = token.substring(0, first) + (token.charAt(first) == 'A' ? 'B' : 'A') + token.substring(first + 1);
+
+        assertReason("signature", () -> service.verifyAccess(tampered));
+    }
+
+    @Test
+    void rejectsTamperedPayload() {
+        AuthTokenService service = service(properties());
+        String[] parts = service.issue("ann@example.com", "Ann").accessToken().split("\\.");
+        String payload = base64("{\"iss\":\"ai-study-buddy\",\"sub\":\"admin@example.com\",\"typ\":\"access\",\"exp\":9999999999}");
+
+        assertReason("signature", () -> service.verifyAccess(parts[0] + "." + payload + "." + parts[2]));
+    }
+
+    @Test
+    void rejectsChangedHeaderAndAlgNone() {
+        AuthTokenService service = service(properties());
+        String[] parts = service.issue("ann@example.com", "Ann").accessToken().split("\\.");
+        String none = base64("{\"alg\":\"none\",\"typ\":\"JWT\"}");
+        String hs512 = base64("{\"alg\":\"HS512\",\"typ\":\"JWT\"}");
+
+        assertReason("malformed", () -> service.verifyAccess(none + "." + parts[1] + "."));
+        assertReason("malformed", () -> service.verifyAccess(none + "." + parts[1] + "." + parts[2]));
+        assertReason("malformed", () -> service.verifyAccess(hs512 + "." + parts[1] + "." + parts[2]));
+    }
+
+    @Test
+    void rejectsExpiredToken() {
+        AuthTokenProperties properties = properties();
+        properties.setAccessTtl(Duration.ofMinutes(-5));
+        AuthTokenService service = service(properties);
+
+        assertReason("expired", () -> service.verifyAccess(service.issue("ann@example.com", "Ann").accessToken()));
+    }
+
+    @Test
+    void toleratesExpiryWithinClockSkew() {
+        AuthTokenProperties properties = properties();
+        properties.setAccessTtl(Duration.ofSeconds(-5));
+        AuthTokenService service = service(properties);
+
+        assertEquals("ann@example.com", service.verifyAccess(service.issue("ann@example.com", "Ann").accessToken()).email());
+    }
+
+    @Test
+    void rejectsTokenOfWrongType() {
+        AuthTokenService service = service(properties());
+        AuthTokenService.TokenPair tokens = service.issue("ann@example.com", "Ann");
+
+        assertReason("claims", () -> service.verifyAccess(tokens.refreshToken()));
+        assertReason("claims", () -> service.verifyRefresh(tokens.accessToken()));
+        assertEquals("ann@example.com", service.verifyRefresh(tokens.refreshToken()).email());
+    }
+
+    @Test
+    void rejectsTokenFromAnotherIssuer() {
+        AuthTokenProperties otherIssuer = properties();
+        otherIssuer.setIssuer("another-service");
+        String token = service(otherIssuer).issue("ann@example.com", "Ann").accessToken();
+
+        assertReason("claims", () -> service(properties()).verifyAccess(token));
+    }
+
+    @Test
+    void rejectsTokenSignedWithAnotherSecret() {
+        AuthTokenProperties otherSecret = properties();
+        otherSecret.setSecret("another-secret-that-is-32-bytes-long!");
+        String token = service(otherSecret).issue("ann@example.com", "Ann").accessToken();
+
+        assertReason("signature", () -> service(properties()).verifyAccess(token));
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        AuthTokenService service = service(properties());
+        String[] parts = service.issue("ann@example.com", "Ann").accessToken().split("\\.");
+
+        assertReason("missing", () -> service.verifyAccess(null));
+        assertReason("missing", () -> service.verifyAccess(""));
+        assertReason("malformed", () -> service.verifyAccess("not-a-token"));
+        assertReason("malformed", () -> service.verifyAccess(parts[0] + "." + parts[1]));
+        assertReason("malformed", () -> service.verifyAccess(parts[0] + "." + parts[1] + ".%%%"));
+        // Payloads are only decoded once the signature checks out
+        assertReason("malformed", () -> service.verifyAccess(signed(parts[0] + ".%%%")));
+        assertReason("malformed", () -> service.verifyAccess(signed(parts[0] + "." + base64("not json"))));
+    }
+
+    @Test
+    void countsRejectionsByReason() {
+        AuthTokenService service = service(properties());
+
+        assertThrows(InvalidTokenException.class, () -> service.verifyAccess("not-a-token"));
+
+        assertEquals(1.0, meterRegistry.get("auth.token.rejected").tag("reason", "malformed").counter().count());
+    }
+
+    @Test
+    void rejectsShortSecret() {
+        AuthTokenProperties properties = properties();
+        properties.setSecret("too-short");
+
+        assertThrows(IllegalStateException.class, () -> service(properties));
+    }
+
+    private AuthTokenService service(AuthTokenProperties properties) {
+        return new AuthTokenService(properties, meterRegistry);
+    }
+
+    private static AuthTokenProperties properties() {
+        AuthTokenProperties properties = new AuthTokenProperties();
+        properties.setSecret(SECRET);
+        return properties;
+    }
+
+    private static void assertReason(String reason, Runnable verification) {
+        InvalidTokenException e = assertThrows(InvalidTokenException.class, verification::run);
+        assertEquals(reason, e.getReason());
+    }
+
+    private static String signed(String signingInput) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            byte[] signature = mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+            return signingInput + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String base64(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
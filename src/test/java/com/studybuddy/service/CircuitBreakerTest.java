@@ -0,0 +1,121 @@
+package com.studybuddy.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    @Test
+    void opensOnceFailureRateCrossesThresholdAfterMinimumCalls() {
+        CircuitBreaker breaker = new CircuitBreaker(10, 4, 0.5, Duration.ofMinutes(1), 2);
+
+        breaker.onFailure(permit(breaker));
+        breaker.onFailure(permit(breaker));
+        breaker.onFailure(permit(breaker));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.onSuccess(permit(breaker));
+        breaker.onFailure(permit(breaker));
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertNull(breaker.tryAcquirePermission());
+        assertTrue(breaker.remainingOpenTime().toSeconds() > 50);
+    }
+
+    @Test
+    void failuresSlideOutOfTheWindow() {
+        CircuitBreaker breaker = new CircuitBreaker(4, 4, 0.5, Duration.ofMinutes(1), 2);
+
+        breaker.onFailure(permit(breaker));
+        for (int i = 0; i < 4; i++) {
+            breaker.onSuccess(permit(breaker));
+        }
+        breaker.onFailure(permit(breaker));
+
+        // Window is now success, success, success, failure
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void halfOpenClosesAfterAllTrialsSucceed() throws Exception {
+        CircuitBreaker breaker = opened(2);
+        Thread.sleep(60);
+
+        CircuitBreaker.Permission first = permit(breaker);
+        CircuitBreaker.Permission second = permit(breaker);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(first.trial());
+        // Only the configured number of trial calls get through
+        assertNull(breaker.tryAcquirePermission());
+
+        breaker.onSuccess(first);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.onSuccess(second);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertNotNull(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void halfOpenReopensOnTrialFailure() throws Exception {
+        CircuitBreaker breaker = opened(2);
+        Thread.sleep(60);
+
+        breaker.onFailure(permit(breaker));
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertNull(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void releasedTrialPermitCanBeReused() throws Exception {
+        CircuitBreaker breaker = opened(1);
+        Thread.sleep(60);
+
+        CircuitBreaker.Permission trial = permit(breaker);
+        assertNull(breaker.tryAcquirePermission());
+        breaker.release(trial);
+
+        assertNotNull(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void lateOutcomeFromBeforeTheCircuitOpenedIsIgnored() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(10, 2, 0.5, Duration.ofMillis(50), 1);
+        CircuitBreaker.Permission slowCall = permit(breaker);
+        breaker.onFailure(permit(breaker));
+        breaker.onFailure(permit(breaker));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        Thread.sleep(60);
+
+        CircuitBreaker.Permission trial = permit(breaker);
+        // The slow call from the closed state succeeds now; it is not the trial call
+        breaker.onSuccess(slowCall);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.release(slowCall);
+        assertNull(breaker.tryAcquirePermission());
+
+        breaker.onSuccess(trial);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    private CircuitBreaker opened(int trialCalls) {
+        CircuitBreaker breaker = new CircuitBreaker(10, 2, 0.5, Duration.ofMillis(50), trialCalls);
+        breaker.onFailure(permit(breaker));
+        breaker.onFailure(permit(breaker));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        return breaker;
+    }
+
+    private CircuitBreaker.Permission permit(CircuitBreaker breaker) {
+        CircuitBreaker.Permission permission = breaker.tryAcquirePermission();
+        assertNotNull(permission);
+        return permission;
+    }
+}
@@ -0,0 +1,72 @@
+package com.studybuddy.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExtractedTextCacheTest {
+
+    private static final String KEY = "a".repeat(64);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void startupDeletesOnlyOwnStaleTempFiles() throws Exception {
+        Path staleTemp = write(KEY + "123.tmp", Duration.ofHours(2));
+        Path freshTemp = write(KEY + "456.tmp", Duration.ZERO);
+        Path foreignTemp = write("upload123.tmp", Duration.ofHours(2));
+        Path foreignFile = write("notes.txt", Duration.ofHours(2));
+        Path foreignJson = write("settings.json", Duration.ofHours(2));
+
+        cache(DataSize.ofMegabytes(1));
+
+        assertFalse(Files.exists(staleTemp));
+        assertTrue(Files.exists(freshTemp));
+        assertTrue(Files.exists(foreignTemp));
+        assertTrue(Files.exists(foreignFile));
+        assertTrue(Files.exists(foreignJson));
+    }
+
+    @Test
+    void evictionNeverTouchesForeignFiles() throws Exception {
+        Path foreignJson = write("settings.json", Duration.ofHours(2));
+        ExtractedTextCache cache = cache(DataSize.ofBytes(1));
+
+        cache.put(KEY, new DocumentTextExtractor.ExtractedText("text", 1, 1, false));
+
+        assertTrue(Files.exists(foreignJson));
+    }
+
+    @Test
+    void reloadsEntriesAfterRestart() {
+        cache(DataSize.ofMegabytes(1)).put(KEY, new DocumentTextExtractor.ExtractedText("text", 1, 1, false));
+
+        DocumentTextExtractor.ExtractedText cached = cache(DataSize.ofMegabytes(1)).get(KEY);
+
+        assertNotNull(cached);
+        assertEquals("text", cached.text());
+    }
+
+    private ExtractedTextCache cache(DataSize maxSize) {
+        return new ExtractedTextCache(true, directory, maxSize, new SimpleMeterRegistry());
+    }
+
+    private Path write(String name, Duration age) throws Exception {
+        Path file = Files.writeString(directory.resolve(name), "{}");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(age)));
+        return file;
+    }
+}
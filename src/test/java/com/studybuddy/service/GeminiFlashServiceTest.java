@@ -0,0 +1,144 @@
+package com.studybuddy.service;
+
+import com.studybuddy.config.DocumentAnalysisProperties;
+import com.studybuddy.config.LlmConcurrencyProperties;
+import com.studybuddy.config.LlmResilienceProperties;
+import com.studybuddy.config.ResponseCacheProperties;
+import com.studybuddy.dto.LlmChunk;
+import com.studybuddy.dto.LlmRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GeminiFlashServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LlmClient llmClient = mock(LlmClient.class);
+    private final DocumentAnalysisProperties analysisProperties = new DocumentAnalysisProperties();
+    private final LlmConcurrencyProperties concurrencyProperties = new LlmConcurrencyProperties();
+    private final DocumentTextExtractor textExtractor = mock(DocumentTextExtractor.class);
+    private LlmBulkheads bulkheads;
+    private GeminiFlashService service;
+
+    @BeforeEach
+    void setUp() {
+        LlmResilienceProperties resilienceProperties = new LlmResilienceProperties();
+        resilienceProperties.getHedge().setEnabled(false);
+        resilienceProperties.getRetry().setEnabled(false);
+        analysisProperties.setChunkTokens(100);
+        analysisProperties.setShedRetryBackoff(Duration.ofMillis(10));
+        analysisProperties.setShedRetryMaxBackoff(Duration.ofMillis(50));
+        bulkheads = new LlmBulkheads(concurrencyProperties, meterRegistry);
+        service = new GeminiFlashService(llmClient,
+                new ResponseCache(new ResponseCacheProperties(), meterRegistry),
+                new RequestCoalescer(meterRegistry),
+                new LlmResilience(resilienceProperties, bulkheads, meterRegistry),
+                textExtractor,
+                analysisProperties);
+    }
+
+    @Test
+    void cachesStreamedReplyThatFinishedCleanly() {
+        AtomicInteger calls = streamReplying("STOP");
+
+        assertEquals("Hello there", String.join("", service.streamChatResponse("Hi", "general").collectList().block()));
+        assertEquals("Hello there", String.join("", service.streamChatResponse("Hi", "general").collectList().block()));
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void doesNotCacheStreamedReplyCutShort() {
+        AtomicInteger calls = streamReplying("MAX_TOKENS");
+
+        service.streamChatResponse("Hi", "general").collectList().block();
+        service.streamChatResponse("Hi", "general").collectList().block();
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void doesNotCacheStreamWithoutFinishReason() {
+        AtomicInteger calls = new AtomicInteger();
+        when(llmClient.stream(any(LlmRequest.class))).thenAnswer(call -> {
+            calls.incrementAndGet();
+            return Flux.just(LlmChunk.text("Hello "));
+        });
+
+        service.streamChatResponse("Hi", "general").collectList().block();
+        service.streamChatResponse("Hi", "general").collectList().block();
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void shedsDocumentAnalysisBeforeMapPhaseWhenBulkheadIsFull() throws Exception {
+        MockMultipartFile file = longDocument();
+        for (int i = 0; i < bulkheads.getLimit("document"); i++) {
+            bulkheads.execute("document", Mono::never).subscribe();
+        }
+
+        assertThrows(LlmOverloadedException.class, () -> service.analyzeDocument(file, "Summarize").block());
+        verify(llmClient, never()).generate(any(LlmRequest.class));
+    }
+
+    @Test
+    void concurrentChunkedAnalysesWaitOutShedChunks() throws Exception {
+        when(llmClient.generate(any(LlmRequest.class))).thenAnswer(call ->
+                Mono.just("notes").delayElement(Duration.ofMillis(20)));
+
+        // Two analyses together need more map permits than the document bulkhead has
+        Mono<String> first = service.analyzeDocument(longDocument("Photosynthesis turns light into chemical energy. "), "Summarize");
+        Mono<String> second = service.analyzeDocument(longDocument("Mitochondria release energy from glucose. "), "Summarize");
+        assertEquals(2, Flux.merge(first, second).collectList().block().size());
+        assertTrue(meterRegistry.get("llm.bulkhead.rejected").tag("bulkhead", "document").counter().count() > 0);
+    }
+
+    @Test
+    void reduceFailureReachesCaller() throws Exception {
+        MockMultipartFile file = longDocument();
+        when(llmClient.generate(any(LlmRequest.class))).thenAnswer(call -> {
+            LlmRequest request = call.getArgument(0);
+            return request.prompt().contains("NOTES REQUEST")
+                    ? Mono.just("notes")
+                    : Mono.error(new GeminiApiException("API Error: upstream failed"));
+        });
+
+        assertThrows(GeminiApiException.class, () -> service.analyzeDocument(file, "Summarize").block());
+    }
+
+    private MockMultipartFile longDocument() throws Exception {
+        return longDocument("Photosynthesis turns light into chemical energy. ");
+    }
+
+    private MockMultipartFile longDocument(String sentence) throws Exception {
+        String text = sentence.repeat(100);
+        MockMultipartFile file = new MockMultipartFile("file", "notes.txt", "text/plain", text.getBytes());
+        when(textExtractor.extract(file)).thenReturn(new DocumentTextExtractor.ExtractedText(text, 1, 1, false));
+        return file;
+    }
+
+    private AtomicInteger streamReplying(String finishReason) {
+        AtomicInteger calls = new AtomicInteger();
+        when(llmClient.stream(any(LlmRequest.class))).thenAnswer(call -> {
+            calls.incrementAndGet();
+            return Flux.just(LlmChunk.text("Hello "), new LlmChunk("there", finishReason));
+        });
+        return calls;
+    }
+}
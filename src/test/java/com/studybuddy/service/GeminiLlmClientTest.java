@@ -0,0 +1,78 @@
+package com.studybuddy.service;
+
+import com.studybuddy.config.GeminiHttpProperties;
+import com.studybuddy.dto.LlmChunk;
+import com.studybuddy.dto.LlmRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeminiLlmClientTest {
+
+    private static final LlmRequest REQUEST = new LlmRequest("Hello", "general", 0.7, 1024);
+
+    @Test
+    void streamsTextAndFinishReason() {
+        List<LlmChunk> chunks = client(
+                "{\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"Hello \"}]}}]}",
+                "{\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"there\"}]},\"finishReason\":\"STOP\"}]}")
+                .stream(REQUEST).collectList().block();
+
+        assertEquals(List.of(LlmChunk.text("Hello "), new LlmChunk("there", "STOP")), chunks);
+    }
+
+    @Test
+    void unreadableChunkFailsTheStream() {
+        GeminiLlmClient client = client(
+                "{\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"Hello \"}]}}]}",
+                "{\"candidates\":[{\"content\":");
+
+        assertThrows(GeminiApiException.class, () -> client.stream(REQUEST).collectList().block());
+    }
+
+    @Test
+    void errorChunkFailsTheStream() {
+        GeminiLlmClient client = client(
+                "{\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"Hello \"}]}}]}",
+                "{\"error\":{\"code\":500,\"message\":\"Internal error\"}}");
+
+        GeminiApiException error = assertThrows(GeminiApiException.class, () -> client.stream(REQUEST).collectList().block());
+        assertTrue(error.getMessage().contains("Internal error"));
+    }
+
+    @Test
+    void blockedPromptFailsTheStream() {
+        GeminiLlmClient client = client("{\"promptFeedback\":{\"blockReason\":\"SAFETY\"}}");
+
+        GeminiApiException error = assertThrows(GeminiApiException.class, () -> client.stream(REQUEST).collectList().block());
+        assertTrue(error.getMessage().contains("SAFETY"));
+    }
+
+    private GeminiLlmClient client(String... events) {
+        StringBuilder body = new StringBuilder();
+        for (String event : events) {
+            body.append("data: ").append(event).append("\n\n");
+        }
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.OK)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_EVENT_STREAM_VALUE)
+                        .body(body.toString())
+                        .build()))
+                .build();
+        GeminiLlmClient client = new GeminiLlmClient(webClient, new GeminiHttpProperties());
+        ReflectionTestUtils.setField(client, "apiKey", "test-key");
+        ReflectionTestUtils.setField(client, "model", "gemini-test");
+        return client;
+    }
+}
@@ -0,0 +1,74 @@
+package com.studybuddy.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.studybuddy.dto.GeminiRequest;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ReactiveHttpOutputMessage;
+import org.springframework.mock.http.client.reactive.MockClientHttpRequest;
+import org.springframework.web.reactive.function.BodyInserter;
+
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+class GeminiRequestWriterTest {
+
+    // Characters Jackson has to escape, plus two-, three- and four-byte UTF-8 text
+    private static final String PROMPT = "Tab\there, back\\slash, \"quoted\", control\u0001 and Café – 光合作用 😀";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void promptRoundTripsExactly() throws Exception {
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.POST, URI.create("/generate"));
+
+        new GeminiRequestWriter(objectMapper).inserter(GeminiRequest.forPrompt(PROMPT, 0.7, 1024))
+                .insert(request, mock(BodyInserter.Context.class))
+                .block();
+
+        String body = request.getBodyAsString().block();
+        GeminiRequest parsed = objectMapper.readValue(body, GeminiRequest.class);
+        assertEquals(PROMPT, parsed.contents().get(0).parts().get(0).text());
+        assertEquals(body.getBytes(StandardCharsets.UTF_8).length, request.getHeaders().getContentLength());
+    }
+
+    @Test
+    void releasesBufferWhenSerializationFailsUnchecked() throws Exception {
+        ObjectMapper failing = spy(objectMapper);
+        doThrow(new IllegalStateException("cannot serialize")).when(failing).writeValue(any(OutputStream.class), any());
+        List<NettyDataBuffer> allocated = new ArrayList<>();
+        NettyDataBufferFactory bufferFactory = spy(new NettyDataBufferFactory(UnpooledByteBufAllocator.DEFAULT));
+        when(bufferFactory.allocateBuffer(anyInt())).thenAnswer(call -> {
+            NettyDataBuffer buffer = (NettyDataBuffer) call.callRealMethod();
+            allocated.add(buffer);
+            return buffer;
+        });
+        ReactiveHttpOutputMessage message = mock(ReactiveHttpOutputMessage.class);
+        when(message.bufferFactory()).thenReturn(bufferFactory);
+        when(message.getHeaders()).thenReturn(new HttpHeaders());
+
+        assertThrows(IllegalStateException.class, () -> new GeminiRequestWriter(failing)
+                .inserter(GeminiRequest.forPrompt(PROMPT, 0.7, 1024))
+                .insert(message, mock(BodyInserter.Context.class))
+                .block());
+
+        assertEquals(1, allocated.size());
+        assertEquals(0, allocated.get(0).getNativeBuffer().refCnt());
+    }
+}
@@ -0,0 +1,151 @@
+package com.studybuddy.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.studybuddy.dto.GeminiResponse;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeminiResponseParserTest {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    // Two-, three- and four-byte UTF-8 characters, so some split points fall inside a character
+    private static final String TEXT = "Café – 光合作用 😀 \\\"quoted\\\"";
+    private static final String DECODED = "Café – 光合作用 😀 \"quoted\"";
+
+    private static final String REPLY = """
+            {"candidates":[{"content":{"parts":[{"text":"%s"},{"text":" more"}],"role":"model"},
+            "finishReason":"STOP","index":0}],
+            "usageMetadata":{"promptTokenCount":12,"candidatesTokenCount":34,"totalTokenCount":46}}
+            """.formatted(TEXT);
+
+    @Test
+    void parsesCompleteReply() {
+        GeminiResponse response = GeminiResponseParser.parse(JSON, bytes(REPLY));
+
+        assertEquals(DECODED + " more", response.text());
+        assertEquals("STOP", response.finishReason());
+        assertEquals(new GeminiResponse.Usage(12, 34, 46), response.usage());
+        assertNull(response.blockReason());
+        assertFalse(response.empty());
+    }
+
+    @Test
+    void parsesReplySplitAtEveryByte() {
+        GeminiResponse expected = GeminiResponseParser.parse(JSON, bytes(REPLY));
+        byte[] json = bytes(REPLY);
+
+        // Covers splits inside names, numbers, escape sequences and multibyte characters
+        for (int split = 1; split < json.length; split++) {
+            GeminiResponseParser parser = new GeminiResponseParser(JSON);
+            parser.feed(ByteBuffer.wrap(Arrays.copyOfRange(json, 0, split)));
+            parser.feed(ByteBuffer.wrap(Arrays.copyOfRange(json, split, json.length)));
+            assertEquals(expected, parser.finish(), "split at byte " + split);
+        }
+    }
+
+    @Test
+    void parsesReplyFedOneByteAtATime() {
+        GeminiResponseParser parser = new GeminiResponseParser(JSON);
+        for (byte b : bytes(REPLY)) {
+            parser.feed(ByteBuffer.wrap(new byte[] {b}));
+        }
+
+        assertEquals(DECODED + " more", parser.finish().text());
+    }
+
+    @Test
+    void consumesAndReleasesDataBuffers() {
+        byte[] json = bytes(REPLY);
+        NettyDataBufferFactory buffers = new NettyDataBufferFactory(UnpooledByteBufAllocator.DEFAULT);
+        GeminiResponseParser parser = new GeminiResponseParser(JSON);
+
+        ByteBuf first = Unpooled.wrappedBuffer(Arrays.copyOfRange(json, 0, 50));
+        parser.feed(buffers.wrap(first));
+        parser.feed(buffers.wrap(Arrays.copyOfRange(json, 50, json.length)));
+
+        assertEquals(0, first.refCnt());
+        assertEquals(DECODED + " more", parser.finish().text());
+    }
+
+    @Test
+    void blockedPromptHasBlockReasonAndNoText() {
+        GeminiResponse response = GeminiResponseParser.parse(JSON, bytes("""
+                {"promptFeedback":{"blockReason":"SAFETY","safetyRatings":[
+                {"category":"HARM_CATEGORY_DANGEROUS_CONTENT","probability":"HIGH"}]},
+                "usageMetadata":{"promptTokenCount":8,"totalTokenCount":8}}
+                """));
+
+        assertFalse(response.hasText());
+        assertEquals("SAFETY", response.blockReason());
+        assertEquals(8, response.usage().promptTokenCount());
+        assertFalse(response.empty());
+    }
+
+    @Test
+    void candidateStoppedBySafetyHasFinishReasonOnly() {
+        GeminiResponse response = GeminiResponseParser.parse(JSON, bytes("""
+                {"candidates":[{"finishReason":"SAFETY","index":0,
+                "safetyRatings":[{"category":"HARM_CATEGORY_HARASSMENT","probability":"MEDIUM"}]}]}
+                """));
+
+        assertFalse(response.hasText());
+        assertEquals("SAFETY", response.finishReason());
+        assertNull(response.blockReason());
+    }
+
+    @Test
+    void emptyCandidatesAndEmptyBody() {
+        GeminiResponse noCandidates = GeminiResponseParser.parse(JSON, bytes("{\"candidates\":[]}"));
+        assertFalse(noCandidates.hasText());
+        assertFalse(noCandidates.empty());
+
+        assertTrue(GeminiResponseParser.parse(JSON, new byte[0]).empty());
+    }
+
+    @Test
+    void readsErrorMessage() {
+        GeminiResponse response = GeminiResponseParser.parse(JSON, bytes("""
+                {"error":{"code":400,"message":"API key not valid.","status":"INVALID_ARGUMENT"}}
+                """));
+
+        assertEquals("API key not valid.", response.errorMessage());
+        assertFalse(response.hasText());
+    }
+
+    @Test
+    void ignoresTextOutsideFirstCandidateParts() {
+        GeminiResponse response = GeminiResponseParser.parse(JSON, bytes("""
+                {"candidates":[{"content":{"parts":[{"text":"first"}]},
+                "citationMetadata":{"citations":[{"text":"cited"}]}},
+                {"content":{"parts":[{"text":"second"}]}}]}
+                """));
+
+        assertEquals("first", response.text());
+    }
+
+    @Test
+    void truncatedReplyFails() {
+        byte[] json = bytes(REPLY);
+
+        assertThrows(RuntimeException.class,
+                () -> GeminiResponseParser.parse(JSON, Arrays.copyOfRange(json, 0, json.length / 2)));
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
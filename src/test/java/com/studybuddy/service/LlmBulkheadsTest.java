@@ -0,0 +1,133 @@
+package com.studybuddy.service;
+
+import com.studybuddy.config.LlmConcurrencyProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LlmBulkheadsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LlmBulkheads bulkheads;
+
+    @BeforeEach
+    void setUp() {
+        LlmConcurrencyProperties properties = new LlmConcurrencyProperties();
+        properties.setBackoffRatio(0.5);
+        properties.setBulkheads(Map.of(
+                "chat", new LlmConcurrencyProperties.Bulkhead(4, 1, 10, Duration.ofMillis(100)),
+                "quiz", new LlmConcurrencyProperties.Bulkhead(1, 1, 10, Duration.ofMillis(100)),
+                "document", new LlmConcurrencyProperties.Bulkhead(4, 1, 10, Duration.ofMillis(100))));
+        bulkheads = new LlmBulkheads(properties, meterRegistry);
+    }
+
+    @Test
+    void slowCallShrinksLimit() {
+        bulkheads.execute("chat", () -> Mono.just("answer").delayElement(Duration.ofMillis(300))).block();
+
+        assertEquals(2, limit("chat"));
+        assertEquals(0, inFlight("chat"));
+    }
+
+    @Test
+    void longStreamWithFastFirstItemKeepsLimit() {
+        bulkheads.executeMany("chat", () -> Flux.just("first")
+                .concatWith(Flux.just("second", "third").delayElements(Duration.ofMillis(200))))
+                .blockLast();
+
+        assertEquals(4, limit("chat"));
+        assertEquals(0, inFlight("chat"));
+    }
+
+    @Test
+    void slowFirstItemShrinksLimit() {
+        bulkheads.executeMany("chat", () -> Flux.just("first").delayElements(Duration.ofMillis(300))).blockLast();
+
+        assertEquals(2, limit("chat"));
+    }
+
+    @Test
+    void throttledOrTimedOutCallShrinksLimit() {
+        WebClientResponseException throttled = WebClientResponseException.create(
+                HttpStatus.TOO_MANY_REQUESTS.value(), "Too Many Requests", null, null, null);
+
+        assertThrows(WebClientResponseException.class,
+                () -> bulkheads.execute("chat", () -> Mono.error(throttled)).block());
+        assertEquals(2, limit("chat"));
+
+        assertThrows(RuntimeException.class,
+                () -> bulkheads.executeMany("chat", () -> Flux.error(new TimeoutException())).blockLast());
+        assertEquals(1, limit("chat"));
+    }
+
+    @Test
+    void otherErrorsDoNotShrinkLimit() {
+        assertThrows(IllegalArgumentException.class,
+                () -> bulkheads.execute("chat", () -> Mono.error(new IllegalArgumentException("bad"))).block());
+
+        assertEquals(4, limit("chat"));
+    }
+
+    @Test
+    void rejectsWhenFullAndKeepsOtherBulkheadsAvailable() {
+        Disposable running = bulkheads.execute("quiz", () -> Mono.never()).subscribe();
+
+        assertThrows(LlmOverloadedException.class,
+                () -> bulkheads.execute("quiz", () -> Mono.just("quiz")).block());
+        assertEquals(1, meterRegistry.get("llm.bulkhead.rejected").tag("bulkhead", "quiz").counter().count());
+        assertEquals("answer", bulkheads.execute("chat", () -> Mono.just("answer")).block());
+
+        running.dispose();
+    }
+
+    @Test
+    void cancelReleasesWithoutSample() {
+        Disposable running = bulkheads.executeMany("document", () -> Flux.never()).subscribe();
+        assertEquals(1, inFlight("document"));
+
+        running.dispose();
+
+        assertEquals(0, inFlight("document"));
+        assertEquals(4, limit("document"));
+    }
+
+    @Test
+    void throwingSupplierReleasesPermit() {
+        assertThrows(IllegalStateException.class,
+                () -> bulkheads.execute("quiz", () -> { throw new IllegalStateException("bad request"); }).block());
+        assertThrows(IllegalStateException.class,
+                () -> bulkheads.executeMany("quiz", () -> { throw new IllegalStateException("bad request"); }).blockLast());
+
+        assertEquals(0, inFlight("quiz"));
+        assertEquals("quiz", bulkheads.execute("quiz", () -> Mono.just("quiz")).block());
+    }
+
+    @Test
+    void routesQueryTypesToBulkheads() {
+        assertEquals("quiz", LlmBulkheads.bulkheadFor("quiz"));
+        assertEquals("document", LlmBulkheads.bulkheadFor("document"));
+        assertEquals("document", LlmBulkheads.bulkheadFor("summary"));
+        assertEquals("chat", LlmBulkheads.bulkheadFor("code"));
+        assertEquals("chat", LlmBulkheads.bulkheadFor(null));
+    }
+
+    private double limit(String bulkhead) {
+        return meterRegistry.get("llm.bulkhead.limit").tag("bulkhead", bulkhead).gauge().value();
+    }
+
+    private double inFlight(String bulkhead) {
+        return meterRegistry.get("llm.bulkhead.in.flight").tag("bulkhead", bulkhead).gauge().value();
+    }
+}
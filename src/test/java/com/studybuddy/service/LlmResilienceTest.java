@@ -0,0 +1,135 @@
+package com.studybuddy.service;
+
+import com.studybuddy.config.LlmConcurrencyProperties;
+import com.studybuddy.config.LlmResilienceProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LlmResilienceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LlmResilienceProperties properties = new LlmResilienceProperties();
+
+    @BeforeEach
+    void setUp() {
+        properties.getRetry().setInitialBackoff(Duration.ofMillis(1));
+        properties.getRetry().setMaxBackoff(Duration.ofMillis(5));
+        properties.getHedge().setEnabled(false);
+        properties.getCircuitBreaker().setWindowSize(10);
+    }
+
+    @Test
+    void retriesRetryableFailuresUpToMaxAttempts() {
+        LlmResilience resilience = resilience();
+        AtomicInteger calls = new AtomicInteger();
+
+        String reply = resilience.execute("chat", 10, () -> calls.incrementAndGet() < 3
+                ? Mono.error(status(HttpStatus.SERVICE_UNAVAILABLE))
+                : Mono.just("answer")).block();
+
+        assertEquals("answer", reply);
+        assertEquals(3, calls.get());
+        assertEquals(2, meterRegistry.get("llm.retry.attempts").counter().count());
+    }
+
+    @Test
+    void doesNotRetryClientErrors() {
+        LlmResilience resilience = resilience();
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(WebClientResponseException.class, () -> resilience.execute("chat", 10, () -> {
+            calls.incrementAndGet();
+            return Mono.error(status(HttpStatus.BAD_REQUEST));
+        }).block());
+
+        assertEquals(1, calls.get());
+        assertEquals(0, circuitState());
+    }
+
+    @Test
+    void openCircuitFailsFastWithoutCallingUpstream() {
+        properties.getRetry().setEnabled(false);
+        properties.getCircuitBreaker().setMinimumCalls(2);
+        LlmResilience resilience = resilience();
+        for (int i = 0; i < 2; i++) {
+            assertThrows(WebClientResponseException.class,
+                    () -> resilience.execute("chat", 10, () -> Mono.error(status(HttpStatus.BAD_GATEWAY))).block());
+        }
+        assertEquals(1, circuitState());
+
+        AtomicInteger calls = new AtomicInteger();
+        LlmOverloadedException rejected = assertThrows(LlmOverloadedException.class,
+                () -> resilience.execute("chat", 10, () -> Mono.fromCallable(calls::incrementAndGet)).block());
+
+        assertEquals("circuit", rejected.getBulkhead());
+        assertEquals(0, calls.get());
+        assertEquals(1, meterRegistry.get("llm.circuit.rejected").counter().count());
+    }
+
+    @Test
+    void disabledCircuitBreakerIsNeverUpdated() {
+        properties.getRetry().setEnabled(false);
+        properties.getCircuitBreaker().setEnabled(false);
+        properties.getCircuitBreaker().setMinimumCalls(2);
+        LlmResilience resilience = resilience();
+
+        for (int i = 0; i < 5; i++) {
+            assertThrows(WebClientResponseException.class,
+                    () -> resilience.execute("chat", 10, () -> Mono.error(status(HttpStatus.BAD_GATEWAY))).block());
+        }
+
+        assertEquals(0, circuitState());
+        assertEquals("answer", resilience.execute("chat", 10, () -> Mono.just("answer")).block());
+    }
+
+    @Test
+    void hedgeAnswersWhenPrimaryIsSlow() {
+        properties.getHedge().setEnabled(true);
+        properties.getHedge().setFallbackDelay(Duration.ofMillis(20));
+        LlmResilience resilience = resilience();
+        AtomicInteger calls = new AtomicInteger();
+
+        String reply = resilience.execute("general", 10, () -> calls.incrementAndGet() == 1
+                ? Mono.just("slow").delayElement(Duration.ofSeconds(5))
+                : Mono.just("hedge")).block(Duration.ofSeconds(2));
+
+        assertEquals("hedge", reply);
+        assertEquals(1, meterRegistry.get("llm.hedge.sent").counter().count());
+        assertEquals(1, meterRegistry.get("llm.hedge.won").counter().count());
+    }
+
+    @Test
+    void longPromptsAreNotHedged() {
+        properties.getHedge().setEnabled(true);
+        properties.getHedge().setFallbackDelay(Duration.ofMillis(1));
+        LlmResilience resilience = resilience();
+
+        String reply = resilience.execute("general", 5000,
+                () -> Mono.just("slow").delayElement(Duration.ofMillis(50))).block();
+
+        assertEquals("slow", reply);
+        assertEquals(0, meterRegistry.get("llm.hedge.sent").counter().count());
+    }
+
+    private LlmResilience resilience() {
+        return new LlmResilience(properties, new LlmBulkheads(new LlmConcurrencyProperties(), meterRegistry), meterRegistry);
+    }
+
+    private double circuitState() {
+        return meterRegistry.get("llm.circuit.state").gauge().value();
+    }
+
+    private static WebClientResponseException status(HttpStatus status) {
+        return WebClientResponseException.create(status.value(), status.getReasonPhrase(), null, null, null);
+    }
+}
@@ -0,0 +1,93 @@
+package com.studybuddy.service;
+
+import com.studybuddy.config.PasswordHashingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PasswordHasherTest {
+
+    private final List<PasswordHasher> hashers = new ArrayList<>();
+
+    @AfterEach
+    void shutdown() {
+        hashers.forEach(PasswordHasher::shutdown);
+    }
+
+    @Test
+    void matchesLegacyPlaintextPassword() {
+        PasswordHasher hasher = hasher(4, 1, 10);
+
+        assertTrue(hasher.matches("secret1", "secret1"));
+        assertFalse(hasher.matches("secret2", "secret1"));
+        assertFalse(hasher.matches(null, "secret1"));
+    }
+
+    @Test
+    void matchesBcryptHash() {
+        PasswordHasher hasher = hasher(4, 1, 10);
+        String hash = hasher.hash("secret1");
+
+        assertTrue(hash.startsWith("$2a$04$"));
+        assertNotEquals(hash, hasher.hash("secret1"));
+        assertTrue(hasher.matches("secret1", hash));
+        assertFalse(hasher.matches("secret2", hash));
+        // A bcrypt hash typed in as the password is not accepted as if it were plaintext
+        assertFalse(hasher.matches(hash, hash));
+    }
+
+    @Test
+    void needsRehashForPlaintextAndLowerCost() {
+        String cost4 = hasher(4, 1, 10).hash("secret1");
+        PasswordHasher cost5 = hasher(5, 1, 10);
+
+        assertTrue(cost5.needsRehash("secret1"));
+        assertTrue(cost5.needsRehash(cost4));
+        assertFalse(cost5.needsRehash(cost5.hash("secret1")));
+        assertFalse(hasher(4, 1, 10).needsRehash(cost4));
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PasswordHasher hasher = hasher(14, 1, 1, meterRegistry);
+
+        // One slow hash occupies the only thread and a second one fills the queue
+        for (int i = 0; i < 2; i++) {
+            Thread caller = new Thread(() -> hasher.hash("secret1"));
+            caller.setDaemon(true);
+            caller.start();
+        }
+        long deadline = System.currentTimeMillis() + 5000;
+        while (meterRegistry.get("auth.password.hash.queue.size").gauge().value() < 1) {
+            assertTrue(System.currentTimeMillis() < deadline, "queue never filled");
+            Thread.sleep(5);
+        }
+
+        PasswordHashingBusyException e = assertThrows(PasswordHashingBusyException.class, () -> hasher.hash("secret2"));
+        assertTrue(e.getRetryAfter().toSeconds() >= 1);
+        assertTrue(meterRegistry.get("auth.password.hash.rejected").counter().count() == 1);
+    }
+
+    private PasswordHasher hasher(int strength, int threads, int queueCapacity) {
+        return hasher(strength, threads, queueCapacity, new SimpleMeterRegistry());
+    }
+
+    private PasswordHasher hasher(int strength, int threads, int queueCapacity, SimpleMeterRegistry meterRegistry) {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setBcryptStrength(strength);
+        properties.setThreads(threads);
+        properties.setQueueCapacity(queueCapacity);
+        PasswordHasher hasher = new PasswordHasher(properties, meterRegistry);
+        hashers.add(hasher);
+        return hasher;
+    }
+}
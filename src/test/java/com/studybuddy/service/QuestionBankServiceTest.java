@@ -0,0 +1,200 @@
+package com.studybuddy.service;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.studybuddy.config.QuestionBankProperties;
+import com.studybuddy.entity.BankedQuestion;
+import com.studybuddy.entity.QuizTopic;
+import com.studybuddy.repository.QuestionBankRepository;
+import com.studybuddy.repository.QuizTopicRepository;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+class QuestionBankServiceTest {
+
+    private static final Pattern QUESTION_COUNT = Pattern.compile("Generate a (\\d+)-question");
+
+    private MongoServer mongoServer;
+    private MongoClient mongoClient;
+    private MongoTemplate mongoTemplate;
+    private QuestionBankRepository questionBankRepository;
+    private QuestionBankService questionBankService;
+    private QuestionBankProperties properties;
+    private QuizService quizService;
+    private final List<String> prompts = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        mongoServer = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = mongoServer.bind();
+        mongoClient = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort());
+        mongoTemplate = new MongoTemplate(mongoClient, "test");
+        MongoRepositoryFactory repositories = new MongoRepositoryFactory(mongoTemplate);
+        questionBankRepository = repositories.getRepository(QuestionBankRepository.class);
+
+        properties = new QuestionBankProperties();
+        quizService = new QuizService(cachingGemini(), 0, 5, 4, 0.8);
+        questionBankService = new QuestionBankService(properties, quizService, questionBankRepository,
+                repositories.getRepository(QuizTopicRepository.class), mongoTemplate, new SimpleMeterRegistry());
+
+        QuizTopic topic = new QuizTopic();
+        topic.setId("photosynthesis|medium");
+        topic.setTopic("Photosynthesis");
+        topic.setTopicKey("photosynthesis");
+        topic.setDifficulty("medium");
+        topic.setRequestCount(10L);
+        mongoTemplate.save(topic);
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongoClient.close();
+        mongoServer.shutdownNow();
+    }
+
+    @Test
+    void consecutiveFillsAddNewQuestions() {
+        questionBankService.fillPopularTopics();
+        long afterFirst = questionBankRepository.countByTopicKeyAndDifficulty("photosynthesis", "medium");
+        questionBankService.fillPopularTopics();
+        long afterSecond = questionBankRepository.countByTopicKeyAndDifficulty("photosynthesis", "medium");
+
+        assertEquals(10, afterFirst);
+        assertEquals(20, afterSecond);
+    }
+
+    @Test
+    void fillPromptListsBankedQuestions() {
+        questionBankService.fillPopularTopics();
+        int firstFillPrompts = prompts.size();
+        String banked = questionBankRepository.findAll().get(0).getQuestion();
+
+        questionBankService.fillPopularTopics();
+
+        assertTrue(prompts.subList(firstFillPrompts, prompts.size()).stream().allMatch(prompt -> prompt.contains(banked)));
+    }
+
+    @Test
+    void requestCountsAreWrittenOnFlushNotWhileServing() {
+        questionBankService.fillPopularTopics();
+        int fillPrompts = prompts.size();
+
+        assertEquals(5, questionBankService.getQuiz("Photosynthesis!", 5, "medium").block().questions().size());
+        questionBankService.getQuiz("photosynthesis", 5, "medium").block();
+        questionBankService.getQuiz("Genetics", 1, "hard").block();
+
+        assertEquals(fillPrompts + 1, prompts.size());
+        assertEquals(10L, requestCount("photosynthesis|medium"));
+
+        questionBankService.flushRequestCounts();
+
+        assertEquals(12L, requestCount("photosynthesis|medium"));
+        assertEquals(1L, requestCount("genetics|hard"));
+        assertEquals("Genetics", mongoTemplate.findById("genetics|hard", QuizTopic.class).getTopic());
+    }
+
+    @Test
+    void failedFlushKeepsCountsForNextRun() {
+        MongoTemplate failingOnce = spy(mongoTemplate);
+        doAnswer(call -> {
+            BulkOperations bulk = spy((BulkOperations) call.callRealMethod());
+            doThrow(new DataAccessResourceFailureException("mongo down")).when(bulk).execute();
+            return bulk;
+        }).doCallRealMethod().when(failingOnce).bulkOps(any(BulkOperations.BulkMode.class), eq(QuizTopic.class));
+        MongoRepositoryFactory repositories = new MongoRepositoryFactory(mongoTemplate);
+        QuestionBankService service = new QuestionBankService(properties, quizService, questionBankRepository,
+                repositories.getRepository(QuizTopicRepository.class), failingOnce, new SimpleMeterRegistry());
+
+        service.getQuiz("Photosynthesis", 1, "medium").block();
+        service.flushRequestCounts();
+        assertEquals(10L, requestCount("photosynthesis|medium"));
+
+        service.flushRequestCounts();
+        assertEquals(11L, requestCount("photosynthesis|medium"));
+    }
+
+    @Test
+    void createsIndexesOnStartup() {
+        questionBankService.createIndexesOnStartup();
+
+        assertTrue(mongoTemplate.indexOps(BankedQuestion.class).getIndexInfo().stream()
+                .anyMatch(index -> index.getName().equals("topic_difficulty_fingerprint") && index.isUnique()));
+    }
+
+    private long requestCount(String id) {
+        return mongoTemplate.findById(id, QuizTopic.class).getRequestCount();
+    }
+
+    /**
+     * Behaves like the real service: cached requests return the same reply for the same prompt,
+     * uncached ones always produce new questions.
+     */
+    private GeminiFlashService cachingGemini() {
+        GeminiFlashService gemini = mock(GeminiFlashService.class);
+        Map<String, String> cache = new HashMap<>();
+        AtomicInteger generated = new AtomicInteger();
+        when(gemini.generateStructuredResponse(anyString(), eq("quiz"), any(), anyBoolean())).thenAnswer(call -> {
+            String prompt = call.getArgument(0);
+            boolean cached = call.getArgument(3);
+            prompts.add(prompt);
+            if (cached && cache.containsKey(prompt)) {
+                return Mono.just(cache.get(prompt));
+            }
+            String reply = quizJson(questionCount(prompt), generated);
+            if (cached) {
+                cache.put(prompt, reply);
+            }
+            return Mono.just(reply);
+        });
+        return gemini;
+    }
+
+    private static int questionCount(String prompt) {
+        Matcher matcher = QUESTION_COUNT.matcher(prompt);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : 1;
+    }
+
+    // Every question uses words of its own so none count as near-duplicates
+    private static String quizJson(int count, AtomicInteger generated) {
+        StringBuilder json = new StringBuilder("{\"questions\":[");
+        for (int i = 0; i < count; i++) {
+            int n = generated.incrementAndGet();
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"question\":\"Which stage alpha").append(n).append(" involves beta").append(n)
+                    .append(" and gamma").append(n).append("?\",\"options\":[\"one").append(n).append("\",\"two")
+                    .append(n).append("\",\"three").append(n).append("\",\"four").append(n)
+                    .append("\"],\"correctIndex\":0,\"explanation\":\"Because.\"}");
+        }
+        return json.append("]}").toString();
+    }
+}
@@ -0,0 +1,113 @@
+package com.studybuddy.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.studybuddy.dto.Quiz;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuizParserTest {
+
+    private final QuizParser parser = new QuizParser(new ObjectMapper());
+
+    @Test
+    void parsesValidPayload() {
+        List<Quiz.Question> questions = parser.parse("""
+                {"questions":[
+                  {"question":"What do plants absorb?","options":["Light","Sound","Heat","Wind"],"correctIndex":0,"explanation":"Chlorophyll absorbs light."},
+                  {"question":"Where does it happen?","options":["Roots","Chloroplasts","Stem","Bark"],"correctIndex":1}
+                ]}""");
+
+        assertEquals(2, questions.size());
+        assertTrue(questions.stream().allMatch(Quiz.Question::isValid));
+        assertEquals("What do plants absorb?", questions.get(0).question());
+        assertEquals("Chlorophyll absorbs light.", questions.get(0).explanation());
+        assertTrue(questions.get(1).options().get(1).correct());
+        assertFalse(questions.get(1).options().get(0).correct());
+    }
+
+    @Test
+    void wrongOptionCountIsInvalid() {
+        List<Quiz.Question> questions = parser.parse("""
+                {"questions":[
+                  {"question":"Three options?","options":["A","B","C"],"correctIndex":0},
+                  {"question":"Five options?","options":["A","B","C","D","E"],"correctIndex":0}
+                ]}""");
+
+        assertEquals(2, questions.size());
+        assertFalse(questions.get(0).isValid());
+        assertFalse(questions.get(1).isValid());
+    }
+
+    @Test
+    void noCorrectOptionIsInvalid() {
+        List<Quiz.Question> questions = parser.parse("""
+                {"questions":[
+                  {"question":"Out of range?","options":["A","B","C","D"],"correctIndex":4},
+                  {"question":"Negative?","options":["A","B","C","D"],"correctIndex":-1},
+                  {"question":"Missing?","options":["A","B","C","D"]}
+                ]}""");
+
+        assertEquals(3, questions.size());
+        questions.forEach(question -> assertFalse(question.isValid(), question.question()));
+    }
+
+    @Test
+    void severalCorrectOptionsAreInvalid() {
+        Quiz.Question question = new Quiz.Question("Which are prime?", List.of(
+                new Quiz.Option("2", true), new Quiz.Option("3", true),
+                new Quiz.Option("4", false), new Quiz.Option("6", false)), null);
+
+        assertFalse(question.isValid());
+    }
+
+    @Test
+    void duplicateOptionsAreInvalid() {
+        List<Quiz.Question> questions = parser.parse("""
+                {"questions":[{"question":"Duplicates?","options":["Yes","yes","No","Maybe"],"correctIndex":0}]}""");
+
+        assertFalse(questions.get(0).isValid());
+    }
+
+    @Test
+    void truncatedJsonYieldsNoQuestions() {
+        List<Quiz.Question> questions = parser.parse("""
+                {"questions":[{"question":"Complete?","options":["A","B","C","D"],"correctIndex":0},{"question":"Cut off","opt""");
+
+        assertTrue(questions.isEmpty());
+    }
+
+    @Test
+    void repairsCodeFencePrefixesAndLetterAnswers() {
+        List<Quiz.Question> questions = parser.parse("""
+                ```json
+                [{"question":"Which gas?","options":["A) Oxygen","B) Carbon dioxide","C) Helium","D) Neon"],"correctIndex":"B"}]
+                ```""");
+
+        assertEquals(1, questions.size());
+        Quiz.Question question = questions.get(0);
+        assertTrue(question.isValid());
+        assertEquals("Carbon dioxide", question.options().get(1).text());
+        assertTrue(question.options().get(1).correct());
+    }
+
+    @Test
+    void parsesPlainTextFormat() {
+        List<Quiz.Question> questions = parser.parse("""
+                Question: What is 2 + 2?
+                A) 3
+                B) 4
+                C) 5
+                D) 6
+                Correct: B
+                """);
+
+        assertEquals(1, questions.size());
+        assertTrue(questions.get(0).isValid());
+        assertTrue(questions.get(0).options().get(1).correct());
+    }
+}
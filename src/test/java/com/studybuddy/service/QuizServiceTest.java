@@ -0,0 +1,104 @@
+package com.studybuddy.service;
+
+import com.studybuddy.dto.Quiz;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class QuizServiceTest {
+
+    private final GeminiFlashService gemini = mock(GeminiFlashService.class);
+    private final List<String> prompts = new ArrayList<>();
+
+    @Test
+    void requestsOnlyTheMissingQuestions() {
+        replies(
+                quizJson(valid("alpha"), valid("beta"), valid("gamma"),
+                        "{\"question\":\"Three options delta?\",\"options\":[\"a\",\"b\",\"c\"],\"correctIndex\":0}",
+                        "{\"question\":\"No answer epsilon?\",\"options\":[\"a\",\"b\",\"c\",\"d\"],\"correctIndex\":7}"),
+                quizJson(valid("zeta"), valid("eta")));
+
+        Quiz quiz = new QuizService(gemini, 2, 5, 4, 0.8).generateQuiz("Greek letters", 5, "medium").block();
+
+        assertEquals(5, quiz.questions().size());
+        assertEquals(2, prompts.size());
+        assertTrue(prompts.get(0).contains("Generate a 5-question"));
+        assertTrue(prompts.get(1).contains("Generate a 2-question"));
+        assertTrue(prompts.get(1).contains("Which letter alpha"));
+    }
+
+    @Test
+    void stopsAfterRepairAttempts() {
+        String invalid = "{\"question\":\"Three options?\",\"options\":[\"a\",\"b\",\"c\"],\"correctIndex\":0}";
+        replies(quizJson(valid("alpha"), invalid), quizJson(invalid), quizJson(invalid));
+
+        Quiz quiz = new QuizService(gemini, 1, 5, 4, 0.8).generateQuiz("Greek letters", 2, "medium").block();
+
+        assertEquals(1, quiz.questions().size());
+        assertEquals(2, prompts.size());
+    }
+
+    @Test
+    void shedRepairRoundReturnsPartialQuiz() {
+        // Four chunks of 5; the fourth returns nothing usable and the repair round is rejected by the bulkhead
+        when(gemini.generateStructuredResponse(anyString(), eq("quiz"), any(), anyBoolean())).thenAnswer(call -> {
+            String prompt = call.getArgument(0);
+            prompts.add(prompt);
+            if (prompts.size() > 4) {
+                return Mono.error(new LlmOverloadedException("quiz", Duration.ofSeconds(5)));
+            }
+            if (prompt.contains("analysis and evaluation") || prompt.contains("common misconceptions")) {
+                return Mono.just(quizJson());
+            }
+            String chunk = prompt.contains("core definitions") ? "core" : prompt.contains("how it works") ? "mechanism" : "applied";
+            List<String> questions = new ArrayList<>();
+            for (String word : List.of("alpha", "beta", "gamma", "delta", "epsilon")) {
+                questions.add(valid(chunk + " " + word));
+            }
+            return Mono.just(quizJson(questions.toArray(String[]::new)));
+        });
+
+        Quiz quiz = new QuizService(gemini, 2, 5, 4, 0.8).generateQuiz("Greek letters", 20, "medium").block();
+
+        assertEquals(15, quiz.questions().size());
+        assertEquals(5, prompts.size());
+    }
+
+    @Test
+    void shedRequestWithNothingAcceptedFails() {
+        when(gemini.generateStructuredResponse(anyString(), eq("quiz"), any(), anyBoolean()))
+                .thenReturn(Mono.error(new LlmOverloadedException("quiz", Duration.ofSeconds(5))));
+
+        assertThrows(LlmOverloadedException.class,
+                () -> new QuizService(gemini, 2, 5, 4, 0.8).generateQuiz("Greek letters", 5, "medium").block());
+    }
+
+    private void replies(String... replies) {
+        when(gemini.generateStructuredResponse(anyString(), eq("quiz"), any(), anyBoolean())).thenAnswer(call -> {
+            prompts.add(call.getArgument(0));
+            return Mono.just(replies[Math.min(prompts.size(), replies.length) - 1]);
+        });
+    }
+
+    private static String valid(String word) {
+        return "{\"question\":\"Which letter " + word + " comes next?\",\"options\":[\"" + word + " one\",\"" + word
+                + " two\",\"" + word + " three\",\"" + word + " four\"],\"correctIndex\":2}";
+    }
+
+    private static String quizJson(String... questions) {
+        return "{\"questions\":[" + String.join(",", questions) + "]}";
+    }
+}
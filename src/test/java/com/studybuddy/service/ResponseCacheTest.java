@@ -0,0 +1,66 @@
+package com.studybuddy.service;
+
+import com.studybuddy.config.ResponseCacheProperties;
+import com.studybuddy.dto.LlmRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class ResponseCacheTest {
+
+    private final ResponseCache cache = new ResponseCache(new ResponseCacheProperties(), new SimpleMeterRegistry());
+
+    @Test
+    void shortChatPromptsIgnoreCaseAndWhitespace() {
+        assertEquals(key("What is  photosynthesis?", "general"), key("what is photosynthesis?\n", "general"));
+        assertEquals(key("Explain Recursion", "explain"), key("explain recursion", "explain"));
+    }
+
+    @Test
+    void codeDocumentAndSummaryPromptsKeepCase() {
+        assertNotEquals(key("int Count = 0;", "code"), key("int count = 0;", "code"));
+        assertNotEquals(key("Review: The API uses HTTP", "document"), key("review: the api uses http", "document"));
+        assertNotEquals(key("Summarize: US vs us", "summary"), key("summarize: us vs us", "summary"));
+    }
+
+    @Test
+    void longChatPromptsKeepCase() {
+        String pasted = "Proofread this: " + "The Quick Brown Fox. ".repeat(60);
+
+        assertNotEquals(key(pasted, "general"), key(pasted.toLowerCase(), "general"));
+    }
+
+    @Test
+    void disabledQueryTypesAreNeverCached() {
+        AtomicInteger calls = new AtomicInteger();
+        ResponseCache.Key key = key("Write a poem", "creative");
+
+        cache.getOrLoad(key, () -> Mono.just("poem " + calls.incrementAndGet())).block();
+        cache.getOrLoad(key, () -> Mono.just("poem " + calls.incrementAndGet())).block();
+
+        assertFalse(cache.isEnabledFor("creative"));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void repeatedPromptIsServedFromCache() {
+        AtomicInteger calls = new AtomicInteger();
+
+        cache.getOrLoad(key("What is DNA?", "general"), () -> Mono.just("answer " + calls.incrementAndGet())).block();
+        String second = cache.getOrLoad(key("what is dna?", "general"),
+                () -> Mono.just("answer " + calls.incrementAndGet())).block();
+
+        assertEquals("answer 1", second);
+        assertEquals(1, calls.get());
+    }
+
+    private ResponseCache.Key key(String prompt, String queryType) {
+        return cache.keyFor(new LlmRequest(prompt, queryType, 0.7, 1024, null));
+    }
+}
@@ -0,0 +1,146 @@
+package com.studybuddy.service;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.studybuddy.entity.User;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.net.InetSocketAddress;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserStatsAggregatorTest {
+
+    private MongoServer mongoServer;
+    private MongoClient mongoClient;
+    private MongoTemplate mongoTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private UserStatsAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        mongoServer = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = mongoServer.bind();
+        mongoClient = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort());
+        mongoTemplate = new MongoTemplate(mongoClient, "test");
+        meterRegistry = new SimpleMeterRegistry();
+        aggregator = new UserStatsAggregator(mongoTemplate, meterRegistry);
+
+        mongoTemplate.save(new User("Ada", "ada@example.com", "secret1"));
+        mongoTemplate.save(new User("Bob", "bob@example.com", "secret1"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongoClient.close();
+        mongoServer.shutdown();
+    }
+
+    @Test
+    void flushWritesSummedCountersAndDrains() {
+        aggregator.record("ada@example.com", "quiz");
+        aggregator.record("ada@example.com", "quiz");
+        aggregator.record("ada@example.com", "chat");
+        aggregator.record("bob@example.com", "document");
+        aggregator.recordLogin("bob@example.com");
+
+        aggregator.flush();
+        aggregator.flush();
+
+        User ada = user("ada@example.com");
+        assertEquals(2, ada.getQuizCount());
+        assertEquals(1, ada.getTotalChats());
+        User bob = user("bob@example.com");
+        assertEquals(1, bob.getDocumentAnalysisCount());
+        assertNotNull(bob.getLastLogin());
+        assertEquals(4, meterRegistry.get("user.stats.flushed.increments").counter().count());
+    }
+
+    @Test
+    void requeuesOnlyFailedUpdates() {
+        // $inc on a non-numeric field fails for this document only
+        mongoTemplate.getCollection("users").updateOne(new Document("email", "bob@example.com"),
+                new Document("$set", new Document("quiz_count", "many")));
+        aggregator.record("ada@example.com", "quiz");
+        aggregator.record("bob@example.com", "quiz");
+
+        aggregator.flush();
+
+        assertEquals(1, user("ada@example.com").getQuizCount());
+        assertEquals(1, meterRegistry.get("user.stats.flush.failures").counter().count());
+        assertEquals(1, meterRegistry.get("user.stats.flushed.increments").counter().count());
+
+        mongoTemplate.getCollection("users").updateOne(new Document("email", "bob@example.com"),
+                new Document("$set", new Document("quiz_count", 0)));
+        aggregator.flush();
+
+        assertEquals(1, user("ada@example.com").getQuizCount());
+        assertEquals(1, user("bob@example.com").getQuizCount());
+    }
+
+    @Test
+    void requeuesEverythingWhenTheOutcomeIsUnknown() {
+        MongoTemplate failingTemplate = mock(MongoTemplate.class);
+        BulkOperations bulk = mock(BulkOperations.class);
+        when(failingTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class)).thenReturn(bulk);
+        when(bulk.execute())
+                .thenThrow(new DataAccessResourceFailureException("connection reset"))
+                .thenReturn(null);
+        UserStatsAggregator failing = new UserStatsAggregator(failingTemplate, meterRegistry);
+        failing.record("ada@example.com", "chat");
+        failing.record("bob@example.com", "quiz");
+
+        failing.flush();
+        failing.flush();
+
+        // Both users are sent again by the second flush
+        verify(bulk, times(4)).updateOne(any(Query.class), any(Update.class));
+        assertEquals(2, meterRegistry.get("user.stats.flushed.increments").counter().count());
+    }
+
+    @Test
+    void evictsIdleUsersAfterRepeatedEmptyFlushes() {
+        aggregator.record("ada@example.com", "chat");
+        aggregator.flush();
+        assertEquals(1, pendingUsers());
+
+        for (int i = 0; i < 5; i++) {
+            aggregator.flush();
+        }
+        assertEquals(1, pendingUsers());
+
+        aggregator.flush();
+        assertEquals(0, pendingUsers());
+
+        // A user who comes back after eviction is tracked again
+        aggregator.record("ada@example.com", "chat");
+        aggregator.flush();
+        assertEquals(2, user("ada@example.com").getTotalChats());
+    }
+
+    private double pendingUsers() {
+        return meterRegistry.get("user.stats.pending.users").gauge().value();
+    }
+
+    private User user(String email) {
+        return mongoTemplate.findOne(Query.query(Criteria.where("email").is(email)), User.class);
+    }
+}